@@ -27,7 +27,10 @@ public final class Bootstrap {
 
     /**
      * The version of the osgl-bootstrap library.
+     *
+     * The version is resolved when it is accessed the first time, thus
+     * loading `Bootstrap` class does not trigger any resource I/O.
      */
-    public static final Version VERSION = Version.of(Bootstrap.class);
+    public static final Version VERSION = Version.lazy(Bootstrap.class);
 
 }
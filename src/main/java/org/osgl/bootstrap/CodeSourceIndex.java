@@ -0,0 +1,267 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of version descriptors found in a code source location, i.e. a jar file
+ * or a class directory.
+ *
+ * A jar file is read once when the index is loaded: the content of each `.version`
+ * file is kept as bytes and is parsed only when a class in the package is looked up.
+ * Packages with a class generated by {@link VersionInfoProcessor} are recorded as well.
+ * A class directory is not read upfront, the `.version` file and the generated class
+ * of a package are probed when the package is looked up.
+ *
+ * The index also keeps the version resolved for each package of the location, thus
+ * each package is looked up only once.
+ *
+ * A package may be found in more than one location, e.g. a shaded copy or a copy
+ * loaded by a child class loader. {@link #isLocationOf(URL, String)} tells whether
+ * the `.version` resource found on the classpath belongs to this location.
+ */
+final class CodeSourceIndex {
+
+    /**
+     * Marks a package that has no version descriptor in the location.
+     */
+    static final Version NOT_FOUND = new Version("", Version.UNKNOWN_STR, Version.UNKNOWN_STR, null);
+
+    private static final String VERSION_FILE = ".version";
+    private static final String GENERATED_CLASS_FILE = Version.GENERATED_CLASS + ".class";
+
+    // class directory probed per package, `null` for a jar file
+    private final File dir;
+    // jar file read upfront, `null` for a class directory
+    private final File jar;
+    private final Map<String, byte[]> versionFiles;
+    private final Set<String> generated;
+    private final ConcurrentMap<String, Version> resolved = new ConcurrentHashMap<String, Version>();
+
+    private CodeSourceIndex(File dir, File jar, Map<String, byte[]> versionFiles, Set<String> generated) {
+        this.dir = dir;
+        this.jar = jar;
+        this.versionFiles = versionFiles;
+        this.generated = generated;
+    }
+
+    /**
+     * Check if the package has a `.version` file in this location.
+     *
+     * @param packageName
+     *      the package name
+     * @return
+     *      `true` if the package has a `.version` file
+     */
+    boolean owns(String packageName) {
+        if (null != dir) {
+            return file(packageName, VERSION_FILE).isFile();
+        }
+        return versionFiles.containsKey(packageName);
+    }
+
+    boolean hasGeneratedClass(String packageName) {
+        if (null != dir) {
+            return file(packageName, GENERATED_CLASS_FILE).isFile();
+        }
+        return generated.contains(packageName);
+    }
+
+    /**
+     * Returns the `.version` file content of the package as `Properties`.
+     *
+     * @param packageName
+     *      the package name
+     * @return
+     *      the properties or `null` if the package does not have a readable `.version` file
+     */
+    Properties properties(String packageName) {
+        byte[] bytes;
+        if (null != dir) {
+            try {
+                bytes = Files.readAllBytes(file(packageName, VERSION_FILE).toPath());
+            } catch (IOException e) {
+                return null;
+            }
+        } else {
+            bytes = versionFiles.get(packageName);
+        }
+        if (null == bytes) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            properties.load(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return properties;
+    }
+
+    /**
+     * Check if a `.version` resource is the `.version` file of the package in this location.
+     *
+     * @param resource
+     *      the resource URL, e.g. found by the class loader of `Version`
+     * @param packageName
+     *      the package name
+     * @return
+     *      `true` if the resource is the `.version` file of the package in this location
+     */
+    boolean isLocationOf(URL resource, String packageName) {
+        if (null == resource) {
+            return false;
+        }
+        try {
+            String protocol = resource.getProtocol();
+            if ("file".equals(protocol)) {
+                return null != dir && file(packageName, VERSION_FILE).equals(new File(resource.toURI()));
+            }
+            if ("jar".equals(protocol)) {
+                // jar:<jar url>!/<entry>
+                String path = resource.getPath();
+                int pos = path.indexOf("!/");
+                return null != jar && pos > 0
+                        && path.substring(pos + 2).equals(packageName.replace('.', '/') + "/" + VERSION_FILE)
+                        && jar.equals(new File(new URL(path.substring(0, pos)).toURI()));
+            }
+        } catch (MalformedURLException e) {
+            return false;
+        } catch (URISyntaxException e) {
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return false;
+    }
+
+    Version get(String packageName) {
+        return resolved.get(packageName);
+    }
+
+    Version put(String packageName, Version version) {
+        Version existing = resolved.putIfAbsent(packageName, version);
+        return null == existing ? version : existing;
+    }
+
+    private File file(String packageName, String name) {
+        return new File(dir, packageName.replace('.', File.separatorChar) + File.separatorChar + name);
+    }
+
+    /**
+     * Load the index of a code source location.
+     *
+     * Only `file` locations are supported, other locations result in
+     * an empty index.
+     *
+     * @param location
+     *      the code source location
+     * @return
+     *      the index of the location
+     */
+    static CodeSourceIndex load(URL location) {
+        if ("file".equals(location.getProtocol())) {
+            try {
+                File file = new File(location.toURI());
+                if (file.isDirectory()) {
+                    return new CodeSourceIndex(file, null, null, null);
+                }
+                if (file.isFile()) {
+                    Map<String, byte[]> versionFiles = new HashMap<String, byte[]>();
+                    Set<String> generated = new HashSet<String>();
+                    scan(file, versionFiles, generated);
+                    return new CodeSourceIndex(null, file, versionFiles, generated);
+                }
+            } catch (URISyntaxException e) {
+                return empty();
+            } catch (IllegalArgumentException e) {
+                return empty();
+            } catch (IOException e) {
+                return empty();
+            }
+        }
+        return empty();
+    }
+
+    private static CodeSourceIndex empty() {
+        return new CodeSourceIndex(null, null, Collections.<String, byte[]>emptyMap(), Collections.<String>emptySet());
+    }
+
+    private static void scan(File jar, Map<String, byte[]> versionFiles, Set<String> generated) throws IOException {
+        ZipFile zip = new ZipFile(jar);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                int pos = name.lastIndexOf('/');
+                if (pos <= 0) {
+                    continue;
+                }
+                String fileName = name.substring(pos + 1);
+                if (VERSION_FILE.equals(fileName)) {
+                    versionFiles.put(name.substring(0, pos).replace('/', '.'), read(zip, entry));
+                } else if (GENERATED_CLASS_FILE.equals(fileName)) {
+                    generated.add(name.substring(0, pos).replace('/', '.'));
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+        InputStream is = zip.getInputStream(entry);
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[512];
+            for (int n = is.read(buf); n >= 0; n = is.read(buf)) {
+                baos.write(buf, 0, n);
+            }
+            return baos.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * An order independent 128 bit digest of a set of {@link Version versions}.
+ *
+ * The fingerprint is the 128 bit sum of the MD5 hash of each version, thus
+ * it can be updated incrementally when a new version is resolved, and two
+ * fingerprints are equal if they are computed from the same set of versions
+ * no matter in which order the versions are added.
+ *
+ * The string form, i.e. 32 hex digits, can be parsed back with {@link #parse(String)}
+ * which makes it cheap to exchange fingerprints between processes.
+ *
+ * @see Version#fingerprint()
+ */
+public final class Fingerprint implements Serializable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The fingerprint of an empty set of versions.
+     */
+    public static final Fingerprint EMPTY = new Fingerprint(0L, 0L);
+
+    private final long high;
+    private final long low;
+
+    private Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Returns a fingerprint that adds the version specified to this fingerprint.
+     *
+     * {@link Version#isUnknown() unknown} version does not change the fingerprint.
+     *
+     * @param version
+     *      the version to be added
+     * @return
+     *      the new fingerprint
+     */
+    public Fingerprint plus(Version version) {
+        if (version.isUnknown()) {
+            return this;
+        }
+        byte[] hash = md5(version.getPackageName() + '\n' + version.getArtifactId() + '\n' + version.getVersion());
+        long hashHigh = toLong(hash, 0);
+        long hashLow = toLong(hash, 8);
+        long sumLow = low + hashLow;
+        // carry when the unsigned sum overflows
+        long carry = (sumLow ^ Long.MIN_VALUE) < (low ^ Long.MIN_VALUE) ? 1L : 0L;
+        return new Fingerprint(high + hashHigh + carry, sumLow);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof Fingerprint) {
+            Fingerprint that = (Fingerprint) o;
+            return that.high == high && that.low == low;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (high ^ (high >>> 32) ^ low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Returns the fingerprint of a collection of versions.
+     *
+     * @param versions
+     *      the versions
+     * @return
+     *      the fingerprint of the versions
+     */
+    public static Fingerprint of(Collection<Version> versions) {
+        Fingerprint fingerprint = EMPTY;
+        for (Version version : versions) {
+            fingerprint = fingerprint.plus(version);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Parse a fingerprint from the string produced by {@link #toString()}.
+     *
+     * @param s
+     *      the fingerprint string
+     * @return
+     *      the fingerprint
+     * @throws IllegalArgumentException
+     *      if the string is not a valid fingerprint string
+     */
+    public static Fingerprint parse(String s) {
+        if (null == s || s.length() != 32) {
+            throw new IllegalArgumentException("fingerprint is not valid: " + s);
+        }
+        try {
+            return new Fingerprint(parseHex(s.substring(0, 16)), parseHex(s.substring(16)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("fingerprint is not valid: " + s);
+        }
+    }
+
+    private static long parseHex(String s) {
+        return (Long.parseLong(s.substring(0, 8), 16) << 32) | Long.parseLong(s.substring(8), 16);
+    }
+
+    private static long toLong(byte[] ba, int offset) {
+        long l = 0L;
+        for (int i = offset; i < offset + 8; i++) {
+            l = (l << 8) | (ba[i] & 0xFF);
+        }
+        return l;
+    }
+
+    private static byte[] md5(String s) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(s.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
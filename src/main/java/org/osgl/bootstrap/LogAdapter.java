@@ -0,0 +1,125 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.logging.Level;
+
+/**
+ * A minimum logging facade used by bootstrap classes.
+ *
+ * SLF4J is used when it is present on the classpath, otherwise
+ * messages are routed to `java.util.logging`. Messages use the SLF4J
+ * `{}` placeholder for the argument with both backends.
+ */
+abstract class LogAdapter {
+
+    private static final String SLF4J_FACTORY = "org.slf4j.LoggerFactory";
+
+    abstract void warn(String message, Object arg);
+
+    abstract void error(String message, Object arg);
+
+    /**
+     * Returns a `LogAdapter` for the class specified.
+     *
+     * @param host
+     *      the class that emits the log messages
+     * @return
+     *      a `LogAdapter` backed by SLF4J if present or JUL otherwise
+     */
+    static LogAdapter get(Class<?> host) {
+        return slf4jPresent() ? new Slf4j(host) : new Jul(host);
+    }
+
+    private static boolean slf4jPresent() {
+        try {
+            Class.forName(SLF4J_FACTORY, false, LogAdapter.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class Slf4j extends LogAdapter {
+
+        private final org.slf4j.Logger logger;
+
+        Slf4j(Class<?> host) {
+            logger = org.slf4j.LoggerFactory.getLogger(host);
+        }
+
+        @Override
+        void warn(String message, Object arg) {
+            logger.warn(message, arg);
+        }
+
+        @Override
+        void error(String message, Object arg) {
+            logger.error(message, arg);
+        }
+    }
+
+    private static final class Jul extends LogAdapter {
+
+        private final java.util.logging.Logger logger;
+
+        Jul(Class<?> host) {
+            logger = java.util.logging.Logger.getLogger(host.getName());
+        }
+
+        @Override
+        void warn(String message, Object arg) {
+            log(Level.WARNING, message, arg);
+        }
+
+        @Override
+        void error(String message, Object arg) {
+            log(Level.SEVERE, message, arg);
+        }
+
+        private void log(Level level, String message, Object arg) {
+            if (logger.isLoggable(level)) {
+                logger.log(level, format(message, arg));
+            }
+        }
+    }
+
+    /**
+     * Replace the first `{}` placeholder in the message with the argument.
+     *
+     * @param message
+     *      the message
+     * @param arg
+     *      the argument
+     * @return
+     *      the formatted message
+     */
+    static String format(String message, Object arg) {
+        int pos = message.indexOf("{}");
+        if (pos < 0) {
+            return message;
+        }
+        return message.substring(0, pos) + arg + message.substring(pos + 2);
+    }
+
+}
@@ -28,13 +28,12 @@ class PropertyLoader {
 
     static PropertyLoader INSTANCE = new PropertyLoader();
 
-    Properties loadFromResource(String packageName) {
+    URL findResource(String packageName) {
         String versionPath = packageName.replace('.', '/') + "/.version";
-        URL url = Version.class.getClassLoader().getResource(versionPath);
-        return null == url ? null : loadFrom(url);
+        return Version.class.getClassLoader().getResource(versionPath);
     }
 
-    private Properties loadFrom(URL url) {
+    Properties loadFrom(URL url) {
         Properties properties = new Properties();
         try {
             properties.load(url.openStream());
@@ -20,13 +20,28 @@ package org.osgl.bootstrap;
  * #L%
  */
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.io.IOException;
 import java.io.Serializable;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Describe the **version** of a specific Java delivery (app or library).
@@ -92,23 +107,98 @@ import java.util.concurrent.ConcurrentMap;
  * System.out.println(swissKnifeVersion.getVersion()); // print `r1.0-ebf1`
  * System.out.println(swissKnifeVersion); // print `swissknife-r1.0-ebf1`
  * ```
+ *
+ * ## 3. Compile the version info (optional)
+ *
+ * Annotate the package with {@link VersionInfo} in its `package-info.java` file
+ * to have the version compiled into a constant class. When `Version` finds the
+ * `.version` resource of a package it loads the generated class instead of
+ * parsing the resource.
  */
 public final class Version implements Serializable {
 
-    private static Logger logger = LoggerFactory.getLogger(Version.class);
+    // the computed UID of 1.0.0, kept so that versions serialized by it can be read
+    private static final long serialVersionUID = -1322462104319531435L;
 
     public static final String UNKNOWN_STR = "unknown";
 
     public static final Version UNKNOWN = new Version("", UNKNOWN_STR, UNKNOWN_STR, null);
 
+    /**
+     * The simple name of the class generated by {@link VersionInfoProcessor}.
+     */
+    static final String GENERATED_CLASS = "VersionConstant";
+
+    /**
+     * The name of the `Version` constant field in the generated class.
+     */
+    static final String GENERATED_FIELD = "VERSION";
+
     private static final ConcurrentMap<String, Version> cache = new ConcurrentHashMap<String, Version>();
 
+    /**
+     * The maximum number of class names kept by {@link #ofFrame(StackTraceElement)}.
+     */
+    static final int FRAME_CACHE_SIZE = 4096;
+
+    // version by class name of stack frames, cleared when full
+    private static final ConcurrentMap<String, Version> frameCache = new ConcurrentHashMap<String, Version>();
+
+    private static final ConcurrentMap<CodeSource, CodeSourceIndex> codeSources =
+            new ConcurrentHashMap<CodeSource, CodeSourceIndex>();
+
+    // version by class, replaced by clearCache()
+    private static volatile ClassValue<Version> classVersions = newClassVersions();
+
+    private static volatile VersionTable sealed;
+
+    private static final AtomicReference<Fingerprint> fingerprint = new AtomicReference<Fingerprint>(Fingerprint.EMPTY);
+
+    // read locked to add a version to the fingerprint, write locked to rebuild it
+    private static final ReadWriteLock fingerprintLock = new ReentrantReadWriteLock();
+
+    /**
+     * System property of comma separated package names that resolve to {@link #UNKNOWN}
+     * without any lookup, in addition to the JDK and proxy packages.
+     */
+    public static final String PROP_EXCLUDED_PACKAGES = "osgl.version.exclude";
+
+    /**
+     * System property that, if set to `true`, makes classes in the `java`, `jdk` and `sun`
+     * packages resolve to {@link #runtime() the Java runtime version}.
+     */
+    public static final String PROP_RUNTIME_VERSION = "osgl.version.runtime";
+
+    // JDK packages, resolved to UNKNOWN or the runtime version
+    private static final String[] PLATFORM_PACKAGES = {"java", "jdk", "sun"};
+
+    // always resolved to UNKNOWN: `javax` APIs may ship in separate jars,
+    // `com.sun.proxy` holds runtime generated proxy classes
+    private static final String[] DEFAULT_EXCLUDED_PACKAGES = {"javax", "com.sun.proxy"};
+
+    private static final Version RUNTIME = new Version(
+            "java", "java", systemProperty("java.version", UNKNOWN_STR), systemProperty("java.vm.version", null));
+
+    private static volatile String[] excludedPackages = excludedPackages(
+            splitPackageNames(systemProperty(PROP_EXCLUDED_PACKAGES, "")));
+
+    private static volatile Version platformVersion = Boolean.parseBoolean(systemProperty(PROP_RUNTIME_VERSION, ""))
+            ? RUNTIME : UNKNOWN;
+
     private final String artifactId;
     private final String packageName;
     private final String projectVersion;
     private final String buildNumber;
     private final String versionTag;
 
+    // class or package name of a lazy version, both `null` for a resolved version
+    private final transient Class<?> lazyClass;
+    private final transient String lazyPackage;
+    private transient volatile Version resolved;
+
+    // text and UTF-8 encoded forms, computed on first rendering
+    private transient volatile Rendered rendered;
+
     /**
      * Construct a `Version` instance with packageName, artifactId,
      * projectVersion and buildName.
@@ -128,6 +218,27 @@ public final class Version implements Serializable {
         this.projectVersion = projectVersion.trim();
         this.buildNumber = isBlank(buildNumber) ? "" : buildNumber.trim();
         this.versionTag = generateVersionTag(this.projectVersion, this.buildNumber);
+        this.lazyClass = null;
+        this.lazyPackage = null;
+    }
+
+    /**
+     * Construct a lazy `Version` which is resolved from the class or
+     * package specified when it is accessed the first time.
+     *
+     * @param lazyClass
+     *      the class to resolve the version from, or `null`
+     * @param lazyPackage
+     *      the package name to resolve the version from if the class is `null`
+     */
+    private Version(Class<?> lazyClass, String lazyPackage) {
+        this.packageName = null;
+        this.artifactId = null;
+        this.projectVersion = null;
+        this.buildNumber = null;
+        this.versionTag = null;
+        this.lazyClass = lazyClass;
+        this.lazyPackage = lazyPackage;
     }
 
     /**
@@ -135,7 +246,7 @@ public final class Version implements Serializable {
      * @return artifact id
      */
     public String getArtifactId() {
-        return artifactId;
+        return target().artifactId;
     }
 
     /**
@@ -146,7 +257,7 @@ public final class Version implements Serializable {
      * @return the package name
      */
     public String getPackageName() {
-        return packageName;
+        return target().packageName;
     }
 
     /**
@@ -155,7 +266,7 @@ public final class Version implements Serializable {
      * @return the project version
      */
     public String getProjectVersion() {
-        return projectVersion;
+        return target().projectVersion;
     }
 
     /**
@@ -180,7 +291,7 @@ public final class Version implements Serializable {
      * @return a version tag as described
      */
     public String getVersion() {
-        return versionTag;
+        return target().versionTag;
     }
 
     /**
@@ -190,7 +301,7 @@ public final class Version implements Serializable {
      * @return the SCM build number
      */
     public String getBuildNumber() {
-        return buildNumber;
+        return target().buildNumber;
     }
 
     /**
@@ -209,10 +320,11 @@ public final class Version implements Serializable {
         }
 
         if (o instanceof Version) {
-            Version that = (Version) o;
-            return that.versionTag.equals(this.versionTag)
-                    && that.packageName.equals(this.packageName)
-                    && that.artifactId.equals(this.artifactId);
+            Version that = ((Version) o).target();
+            Version self = target();
+            return that.versionTag.equals(self.versionTag)
+                    && that.packageName.equals(self.packageName)
+                    && that.artifactId.equals(self.artifactId);
         }
 
         return false;
@@ -220,16 +332,130 @@ public final class Version implements Serializable {
 
     @Override
     public int hashCode() {
-        int result = artifactId.hashCode();
-        result = 31 * result + packageName.hashCode();
-        result = 31 * result + versionTag.hashCode();
+        Version self = target();
+        int result = self.artifactId.hashCode();
+        result = 31 * result + self.packageName.hashCode();
+        result = 31 * result + self.versionTag.hashCode();
         return result;
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder(artifactId).append("-").append(getVersion());
-        return sb.toString();
+        return rendered().text;
+    }
+
+    /**
+     * Append the {@link #toString() string form} of this version to a `StringBuilder`.
+     *
+     * The string form is computed once per instance, thus this method does not
+     * allocate if the builder has enough capacity.
+     *
+     * @param sb the string builder
+     * @return the string builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append(rendered().text);
+    }
+
+    /**
+     * Append the {@link #toString() string form} of this version to an `Appendable`.
+     *
+     * @param appendable the appendable
+     * @return the appendable
+     * @throws IOException if the appendable failed to append
+     */
+    public Appendable appendTo(Appendable appendable) throws IOException {
+        return appendable.append(rendered().text);
+    }
+
+    /**
+     * Write the UTF-8 encoded {@link #toString() string form} of this version into
+     * a byte buffer.
+     *
+     * The encoded bytes are computed once per instance, thus this method does not
+     * allocate.
+     *
+     * @param buffer the byte buffer
+     * @return the byte buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     */
+    public ByteBuffer writeUtf8(ByteBuffer buffer) {
+        return buffer.put(rendered().utf8);
+    }
+
+    /**
+     * Write the UTF-8 encoded {@link #getArtifactId() artifact id} into a byte buffer.
+     *
+     * @param buffer the byte buffer
+     * @return the byte buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     * @see #writeUtf8(ByteBuffer)
+     */
+    public ByteBuffer writeArtifactIdUtf8(ByteBuffer buffer) {
+        return buffer.put(rendered().artifactIdUtf8);
+    }
+
+    /**
+     * Write the UTF-8 encoded {@link #getVersion() version tag} into a byte buffer.
+     *
+     * @param buffer the byte buffer
+     * @return the byte buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     * @see #writeUtf8(ByteBuffer)
+     */
+    public ByteBuffer writeVersionUtf8(ByteBuffer buffer) {
+        return buffer.put(rendered().versionUtf8);
+    }
+
+    /**
+     * Write the UTF-8 encoded {@link #getBuildNumber() build number} into a byte buffer.
+     *
+     * @param buffer the byte buffer
+     * @return the byte buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     * @see #writeUtf8(ByteBuffer)
+     */
+    public ByteBuffer writeBuildNumberUtf8(ByteBuffer buffer) {
+        return buffer.put(rendered().buildNumberUtf8);
+    }
+
+    private Rendered rendered() {
+        Version self = target();
+        Rendered rendered = self.rendered;
+        if (null == rendered) {
+            rendered = new Rendered(self);
+            self.rendered = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Returns the resolved version of this instance.
+     *
+     * A resolved `Version` returns itself, a lazy `Version` resolves
+     * the class or package on the first call and returns the cached result afterwards.
+     *
+     * @return the resolved `Version`
+     */
+    private Version target() {
+        if (null == lazyClass && null == lazyPackage) {
+            return this;
+        }
+        Version version = resolved;
+        if (null == version) {
+            version = null != lazyClass ? of(lazyClass) : of_(lazyPackage);
+            resolved = version;
+        }
+        return version;
+    }
+
+    /**
+     * Serialize the resolved version instead of the lazy handle.
+     *
+     * @return the resolved `Version`
+     */
+    private Object writeReplace() {
+        return target();
     }
 
     /**
@@ -248,8 +474,10 @@ public final class Version implements Serializable {
      *
      * This method will tried to check if {@link #cache local cache} contains
      * the package name first, and return the version instance mapped to the
-     * package name in local cache, or if not found in local cache try to load
-     * the `.version` file as a resource corresponding to the package name.
+     * package name in local cache, or if not found in local cache try to find
+     * the `.version` file as a resource corresponding to the package name. If the
+     * package has a class generated by {@link VersionInfoProcessor} the version is
+     * loaded from the class, otherwise the `.version` file is read.
      *
      * If the `.version` file not found, this method will try to get version
      * of parent package until the package name is empty, in which case
@@ -268,6 +496,22 @@ public final class Version implements Serializable {
     /**
      * Returns a `Version` of the library contains the class specified.
      *
+     * The version is resolved through the code source location of the class
+     * first, i.e. the jar file or class directory the class is loaded from.
+     * Version descriptors in a location are read once and all classes from the
+     * location resolve with the location index. For a class without a code source,
+     * or whose location does not contain a version descriptor for the package,
+     * the version is resolved by the package name.
+     *
+     * If the `.version` resource of the package found on the classpath is in another
+     * location, e.g. the class is in a shaded copy of the package, the version of the
+     * class location applies to the classes of that location only and is neither
+     * cached for the package nor counted in {@link #resolvedVersions()} and the
+     * {@link #fingerprint()}.
+     *
+     * The version is kept with the class once resolved, thus repeat lookups
+     * of the same class do not allocate.
+     *
      * @param clazz the class
      * @return a `Version` for that class if provided or
      * {@link #UNKNOWN} if not provided
@@ -275,63 +519,489 @@ public final class Version implements Serializable {
      * @see #ofPackage(String)
      */
     public static Version of(Class<?> clazz) {
+        return classVersions.get(clazz);
+    }
+
+    /**
+     * Returns a `Version` of the library contains the package specified.
+     *
+     * @param pkg the package
+     * @return a `Version` for the package if provided or
+     * {@link #UNKNOWN} if not provided
+     * @throws NullPointerException if the class specified is `null`
+     * @see #ofPackage(String)
+     */
+    public static Version of(Package pkg) {
+        return of_(pkg.getName());
+    }
+
+    private static Version resolveClass(Class<?> clazz) {
         String className = clazz.getName();
+        Version platform = platformVersion(className);
+        if (null != platform) {
+            return platform;
+        }
         int pos = className.lastIndexOf('.');
         if (pos < 0) {
             return UNKNOWN;
         }
         String packageName = className.substring(0, pos);
+        if (null == sealed) {
+            Version version = ofCodeSource(clazz, packageName);
+            if (null != version) {
+                return version;
+            }
+        }
         return of_(packageName);
     }
 
+    private static Version ofCodeSource(Class<?> clazz, String packageName) {
+        CodeSource codeSource;
+        try {
+            ProtectionDomain domain = clazz.getProtectionDomain();
+            codeSource = null == domain ? null : domain.getCodeSource();
+        } catch (SecurityException e) {
+            return null;
+        }
+        if (null == codeSource || null == codeSource.getLocation()) {
+            return null;
+        }
+        CodeSourceIndex index = codeSources.get(codeSource);
+        if (null == index) {
+            index = CodeSourceIndex.load(codeSource.getLocation());
+            CodeSourceIndex existing = codeSources.putIfAbsent(codeSource, index);
+            if (null != existing) {
+                index = existing;
+            }
+        }
+        Version version = resolveInCodeSource(index, packageName, clazz.getClassLoader());
+        return CodeSourceIndex.NOT_FOUND == version ? null : version;
+    }
+
+    private static Version resolveInCodeSource(CodeSourceIndex index, String packageName, ClassLoader classLoader) {
+        Version version = index.get(packageName);
+        if (null != version) {
+            return version;
+        }
+        if (index.owns(packageName)) {
+            if (index.hasGeneratedClass(packageName)) {
+                version = loadFromGeneratedClass(packageName, classLoader);
+            }
+            if (null == version) {
+                Properties properties = index.properties(packageName);
+                version = null == properties ? CodeSourceIndex.NOT_FOUND : loadFrom(properties, packageName);
+            }
+            // only the location found on the classpath defines the version of the package,
+            // a shaded copy or a copy in a child class loader is kept in its index only
+            if (CodeSourceIndex.NOT_FOUND != version
+                    && index.isLocationOf(PropertyLoader.INSTANCE.findResource(packageName), packageName)) {
+                Version cached = cache(packageName, version);
+                if (cached.equals(version)) {
+                    version = cached;
+                }
+            }
+        } else {
+            int pos = packageName.lastIndexOf('.');
+            String parent = pos < 0 ? null : packageName.substring(0, pos);
+            version = null == parent ? CodeSourceIndex.NOT_FOUND : resolveInCodeSource(index, parent, classLoader);
+            if (CodeSourceIndex.NOT_FOUND != version && version == cache.get(parent)) {
+                // keep the package in the cache so that it is sealed with the version
+                cache.putIfAbsent(packageName, version);
+            }
+        }
+        return index.put(packageName, version);
+    }
+
     /**
-     * Returns a `Version` of the library contains the package specified.
+     * Returns a `Version` of the library contains the class of the stack frame specified.
      *
-     * @param pkg the package
-     * @return a `Version` for the package if provided or
-     * {@link #UNKNOWN} if not provided
+     * Versions are cached by class name, thus looking up a frame of a class seen
+     * before costs one map lookup and does not allocate. The cache holds at most
+     * {@value #FRAME_CACHE_SIZE} class names and is cleared when full, so that
+     * generated classes, e.g. proxies and lambdas, do not grow it without limit.
+     *
+     * @param frame the stack trace element
+     * @return a `Version` for the class of the frame or {@link #UNKNOWN} if not provided
+     * @throws NullPointerException if the frame specified is `null`
+     * @see #ofFrames(StackTraceElement[])
+     */
+    public static Version ofFrame(StackTraceElement frame) {
+        String className = frame.getClassName();
+        Version version = frameCache.get(className);
+        if (null == version) {
+            int pos = className.lastIndexOf('.');
+            version = pos < 0 ? UNKNOWN : of_(className.substring(0, pos));
+            if (frameCache.size() >= FRAME_CACHE_SIZE) {
+                frameCache.clear();
+            }
+            frameCache.putIfAbsent(className, version);
+        }
+        return version;
+    }
+
+    /**
+     * Returns `Version` of the library for each stack frame specified.
+     *
+     * @param frames the stack trace elements, e.g. `Throwable.getStackTrace()`
+     * @return an array of `Version`, the element at index `i` is the version of `frames[i]`
+     * @see #ofFrames(StackTraceElement[], Version[])
+     */
+    public static Version[] ofFrames(StackTraceElement[] frames) {
+        return ofFrames(frames, new Version[frames.length]);
+    }
+
+    /**
+     * Fill `Version` of the library for each stack frame specified into
+     * an array supplied by the caller.
+     *
+     * Consecutive frames of the same class are resolved once and classes seen
+     * before are served from the cache, thus mapping a repeated trace into a
+     * reused array does not allocate.
+     *
+     * @param frames the stack trace elements, e.g. `Throwable.getStackTrace()`
+     * @param versions the array to fill versions into
+     * @return the `versions` array
+     * @throws IllegalArgumentException if `versions` is shorter than `frames`
+     * @see #ofFrame(StackTraceElement)
+     */
+    public static Version[] ofFrames(StackTraceElement[] frames, Version[] versions) {
+        if (versions.length < frames.length) {
+            throw new IllegalArgumentException("versions array is shorter than frames array");
+        }
+        String lastClassName = null;
+        Version lastVersion = null;
+        for (int i = 0; i < frames.length; i++) {
+            StackTraceElement frame = frames[i];
+            String className = frame.getClassName();
+            if (!className.equals(lastClassName)) {
+                lastClassName = className;
+                lastVersion = ofFrame(frame);
+            }
+            versions[i] = lastVersion;
+        }
+        return versions;
+    }
+
+    /**
+     * Returns a lazy `Version` of the library contains the class specified.
+     *
+     * No resource is loaded until one of the accessor methods of the
+     * returned instance is called, thus it is safe to be used to initialize
+     * a static field without incurring I/O on class initialization:
+     *
+     * ```java
+     * public static final Version VERSION = Version.lazy(SwissKnife.class);
+     * ```
+     *
+     * The lazy `Version` resolves the class with {@link #of(Class)} once and is safe
+     * to be shared across threads. It is equal to the `Version` returned by
+     * {@link #of(Class)} and is serialized as the resolved version.
+     *
+     * @param clazz the class
+     * @return a lazy `Version` for that class
      * @throws NullPointerException if the class specified is `null`
+     * @see #of(Class)
+     */
+    public static Version lazy(Class<?> clazz) {
+        if (null == clazz) {
+            throw new NullPointerException();
+        }
+        return new Version(clazz, null);
+    }
+
+    /**
+     * Returns a lazy `Version` corresponding to the package name specified.
+     *
+     * @param packageName the package name
+     * @return a lazy `Version` for that package
+     * @throws IllegalArgumentException if the package name is not valid
+     * @see #lazy(Class)
      * @see #ofPackage(String)
      */
-    public static Version of(Package pkg) {
-        return of_(pkg.getName());
+    public static Version lazyOfPackage(String packageName) {
+        if (!isValidPackageName(packageName)) {
+            throw new IllegalArgumentException("package name is not valid: " + packageName);
+        }
+        return new Version(null, packageName);
     }
 
     private static Version of_(String packageName) {
-        Version version = cache.get(packageName);
+        VersionTable table = sealed;
+        Version version = null == table ? cache.get(packageName) : table.get(packageName);
         if (null != version) {
             return version;
         }
-        version = loadFromResource(packageName);
+        // platform packages are never cached, thus checked on a miss only
+        Version platform = platformVersion(packageName);
+        if (null != platform) {
+            return platform;
+        }
+        if (null != table) {
+            if (table.strict) {
+                return UNKNOWN;
+            }
+            version = cache.get(packageName);
+            if (null != version) {
+                return version;
+            }
+        }
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        URL url = loader.findResource(packageName);
+        if (null != url) {
+            // the processor keeps the `.version` file next to the generated class,
+            // thus a package without the file is not probed for the class, and the
+            // file of a package with the class is not read
+            version = loadFromGeneratedClass(packageName);
+            if (null == version) {
+                Properties properties = loader.loadFrom(url);
+                if (null != properties) {
+                    version = loadFrom(properties, packageName);
+                }
+            }
+        }
         if (null == version) {
+            // cache the parent package version for this package as well
+            // so that the parent chain is walked only once
             int pos = packageName.lastIndexOf('.');
-            if (pos < 0) {
-                return UNKNOWN;
+            version = pos < 0 ? UNKNOWN : of_(packageName.substring(0, pos));
+            Version existing = cache.putIfAbsent(packageName, version);
+            return null == existing ? version : existing;
+        }
+        return cache(packageName, version);
+    }
+
+    /**
+     * Freeze all package to version mappings resolved so far into an immutable
+     * lookup table.
+     *
+     * This is the same as calling {@link #seal(boolean) seal(false)}.
+     */
+    public static void seal() {
+        seal(false);
+    }
+
+    /**
+     * Freeze all package to version mappings resolved so far, including packages
+     * that inherit version from parent package and packages resolved to
+     * {@link #UNKNOWN}, into an immutable lookup table.
+     *
+     * Once sealed, looking up a package found in the table costs one hash
+     * and usually one array read and one equality check. For a package not found in
+     * the table:
+     *
+     * * if `strict` is `false`, the version is resolved and cached as normal
+     * * if `strict` is `true`, {@link #UNKNOWN} is returned without any resource I/O
+     *
+     * Calling this method again replaces the table with a new snapshot. Versions kept
+     * for classes and stack frames are dropped, thus classes resolved to {@link #UNKNOWN}
+     * by a strict table are resolved again after sealing with `strict` set to `false`.
+     *
+     * @param strict
+     *      whether lookup of a package not in the table shall return {@link #UNKNOWN}
+     */
+    public static void seal(boolean strict) {
+        sealed = new VersionTable(new HashMap<String, Version>(cache), strict);
+        forgetResolvedClasses();
+    }
+
+    /**
+     * Returns the `Version` of the Java runtime, with artifact id `java`, the
+     * `java.version` system property as project version and the `java.vm.version`
+     * system property as build number.
+     *
+     * @return the Java runtime version
+     * @see #resolvePlatformToRuntime(boolean)
+     */
+    public static Version runtime() {
+        return RUNTIME;
+    }
+
+    /**
+     * Set the packages that resolve to {@link #UNKNOWN} without any lookup.
+     *
+     * Classes in the JDK packages `java`, `jdk`, `sun`, `javax` and in the proxy package
+     * `com.sun.proxy` are always short-circuited, this method replaces the additional
+     * packages, which are initialized from the {@link #PROP_EXCLUDED_PACKAGES} system
+     * property. A package excludes all of its sub packages.
+     *
+     * Versions already resolved for the packages are dropped. A {@link #seal() sealed}
+     * table is not changed, thus call this method before sealing.
+     *
+     * Call this method with no argument to clear the additional packages.
+     *
+     * @param packageNames
+     *      the package names, e.g. `net.bytebuddy.renamed`
+     * @throws IllegalArgumentException
+     *      if any of the package names is not valid
+     */
+    public static void setExcludedPackages(String... packageNames) {
+        for (String packageName : packageNames) {
+            if (!isValidPackageName(packageName)) {
+                throw new IllegalArgumentException("package name is not valid: " + packageName);
             }
-            return ofPackage(packageName.substring(0, pos));
         }
-        cache.put(packageName, version);
-        return version;
+        excludedPackages = excludedPackages(packageNames);
+        // hold off versions being added, so that none is lost or counted twice
+        Lock lock = fingerprintLock.writeLock();
+        lock.lock();
+        try {
+            for (String packageName : cache.keySet()) {
+                for (String excluded : packageNames) {
+                    if (inPackage(packageName, excluded)) {
+                        cache.remove(packageName);
+                        break;
+                    }
+                }
+            }
+            // recompute the fingerprint from the remaining versions, each counted by its own package
+            Fingerprint sum = Fingerprint.EMPTY;
+            for (Map.Entry<String, Version> entry : cache.entrySet()) {
+                if (entry.getKey().equals(entry.getValue().getPackageName())) {
+                    sum = sum.plus(entry.getValue());
+                }
+            }
+            fingerprint.set(sum);
+        } finally {
+            lock.unlock();
+        }
+        forgetResolvedClasses();
+    }
+
+    /**
+     * Set whether classes in the `java`, `jdk` and `sun` packages resolve to
+     * {@link #runtime() the runtime version} instead of {@link #UNKNOWN}.
+     *
+     * Other short-circuited packages, including `javax` whose APIs may ship in
+     * separate jars, always resolve to {@link #UNKNOWN}.
+     *
+     * The initial setting is read from the {@link #PROP_RUNTIME_VERSION} system property.
+     *
+     * @param enabled
+     *      `true` to resolve JDK packages to the runtime version
+     */
+    public static void resolvePlatformToRuntime(boolean enabled) {
+        platformVersion = enabled ? RUNTIME : UNKNOWN;
+        forgetResolvedClasses();
+    }
+
+    private static void forgetResolvedClasses() {
+        frameCache.clear();
+        codeSources.clear();
+        classVersions = newClassVersions();
+    }
+
+    private static Version cache(String packageName, Version version) {
+        Lock lock = fingerprintLock.readLock();
+        lock.lock();
+        try {
+            Version existing = cache.putIfAbsent(packageName, version);
+            if (null != existing) {
+                return existing;
+            }
+            while (true) {
+                Fingerprint current = fingerprint.get();
+                if (fingerprint.compareAndSet(current, current.plus(version))) {
+                    return version;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the {@link Fingerprint} of all versions resolved so far.
+     *
+     * The fingerprint is updated incrementally when a new version is resolved
+     * and does not depend on the order in which the versions are resolved.
+     * Processes resolved the same set of versions have the same fingerprint.
+     *
+     * @return the fingerprint of resolved versions
+     */
+    public static Fingerprint fingerprint() {
+        return fingerprint.get();
+    }
+
+    /**
+     * Returns all versions resolved so far, not including {@link #UNKNOWN}.
+     *
+     * @return a set of resolved versions
+     */
+    public static Set<Version> resolvedVersions() {
+        Set<Version> versions = new HashSet<Version>();
+        for (Version version : cache.values()) {
+            if (!version.isUnknown()) {
+                versions.add(version);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Compare resolved versions with a remote set of versions.
+     *
+     * If the remote fingerprint equals to {@link #fingerprint()} then an empty set
+     * is returned without calling `remoteVersions`. Otherwise `remoteVersions` is
+     * called to fetch the remote versions, and versions that exist on only one side
+     * are returned.
+     *
+     * @param remoteFingerprint
+     *      the fingerprint of the remote versions
+     * @param remoteVersions
+     *      provides the remote versions when fingerprints differ
+     * @return
+     *      versions that are either resolved locally or provided remotely but not both
+     * @throws Exception
+     *      if `remoteVersions` failed to provide the remote versions
+     */
+    public static Set<Version> diff(Fingerprint remoteFingerprint,
+                                    Callable<? extends Collection<Version>> remoteVersions) throws Exception {
+        Set<Version> diff = new HashSet<Version>();
+        if (fingerprint().equals(remoteFingerprint)) {
+            return diff;
+        }
+        Set<Version> local = resolvedVersions();
+        Collection<Version> remote = remoteVersions.call();
+        for (Version version : remote) {
+            if (!local.remove(version) && !version.isUnknown()) {
+                diff.add(version);
+            }
+        }
+        diff.addAll(local);
+        return diff;
     }
 
     private static boolean isBlank(String s) {
         return null == s || "".equals(s.trim());
     }
 
-    private static Version loadFromResource(String packageName) {
-        Properties properties = PropertyLoader.INSTANCE.loadFromResource(packageName);
-        return null == properties ? null : loadFrom(properties, packageName);
+    private static Version loadFromGeneratedClass(String packageName) {
+        return loadFromGeneratedClass(packageName, Version.class.getClassLoader());
     }
 
-    private static Version loadFrom(Properties properties, String packageName) {
+    private static Version loadFromGeneratedClass(String packageName, ClassLoader classLoader) {
+        try {
+            Class<?> c = Class.forName(packageName + "." + GENERATED_CLASS, true, classLoader);
+            Object version = c.getField(GENERATED_FIELD).get(null);
+            return version instanceof Version ? (Version) version : null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    static Version loadFrom(Properties properties, String packageName) {
         String artifactId = properties.getProperty("artifact");
         if (isBlank(artifactId)) {
-            logger.warn("artifact not defined in .version file: %s", packageName);
+            LoggerHolder.logger.warn("artifact not defined in .version file: {}", packageName);
             artifactId = packageName;
         }
         String projectVersion = properties.getProperty("version");
         if (isBlank(projectVersion)) {
-            logger.error("version not defined in .version file: %s", packageName);
+            LoggerHolder.logger.error("version not defined in .version file: {}", packageName);
             return UNKNOWN;
         }
         String buildNumber = properties.getProperty("build");
@@ -340,6 +1010,60 @@ public final class Version implements Serializable {
                 checkVariableRef(buildNumber, packageName));
     }
 
+    /**
+     * Returns the version of a platform or excluded package, or `null` if the name
+     * is not in any of those packages.
+     *
+     * @param name
+     *      a package name or class name
+     */
+    private static Version platformVersion(String name) {
+        for (String prefix : PLATFORM_PACKAGES) {
+            if (inPackage(name, prefix)) {
+                return platformVersion;
+            }
+        }
+        for (String prefix : excludedPackages) {
+            if (inPackage(name, prefix)) {
+                return UNKNOWN;
+            }
+        }
+        return null;
+    }
+
+    private static boolean inPackage(String name, String packageName) {
+        int len = packageName.length();
+        return name.startsWith(packageName) && (name.length() == len || '.' == name.charAt(len));
+    }
+
+    private static String[] excludedPackages(String[] packageNames) {
+        int defaults = DEFAULT_EXCLUDED_PACKAGES.length;
+        String[] packages = new String[defaults + packageNames.length];
+        System.arraycopy(DEFAULT_EXCLUDED_PACKAGES, 0, packages, 0, defaults);
+        System.arraycopy(packageNames, 0, packages, defaults, packageNames.length);
+        return packages;
+    }
+
+    private static String[] splitPackageNames(String s) {
+        List<String> list = new ArrayList<String>();
+        for (String packageName : s.split(",")) {
+            packageName = packageName.trim();
+            if (isValidPackageName(packageName)) {
+                list.add(packageName);
+            }
+        }
+        return list.toArray(new String[list.size()]);
+    }
+
+    private static String systemProperty(String key, String defaultValue) {
+        try {
+            String value = System.getProperty(key);
+            return null == value ? defaultValue : value;
+        } catch (SecurityException e) {
+            return defaultValue;
+        }
+    }
+
     private static boolean isValidPackageName(String s) {
         if (null == s) {
             return false;
@@ -350,14 +1074,13 @@ public final class Version implements Serializable {
             return false;
         }
 
-        char[] ca = s.toCharArray();
-        if (!Character.isJavaIdentifierStart(ca[0])) {
+        if (!Character.isJavaIdentifierStart(s.charAt(0))) {
             return false;
         }
 
         boolean lastTimeIsDot = false;
         for (int i = 1; i < len; i++) {
-            char c = ca[i];
+            char c = s.charAt(i);
             if ('.' == c) {
                 if (lastTimeIsDot) {
                     return false;
@@ -367,7 +1090,7 @@ public final class Version implements Serializable {
                 continue;
             }
             lastTimeIsDot = false;
-            if (!Character.isJavaIdentifierPart(ca[i])) {
+            if (!Character.isJavaIdentifierPart(c)) {
                 return false;
             }
         }
@@ -401,8 +1124,20 @@ public final class Version implements Serializable {
         return (projectVersion.endsWith("-SNAPSHOT") ? "v" : "r") + projectVersion;
     }
 
+    private static ClassValue<Version> newClassVersions() {
+        return new ClassValue<Version>() {
+            @Override
+            protected Version computeValue(Class<?> type) {
+                return resolveClass(type);
+            }
+        };
+    }
+
     static void clearCache() {
+        sealed = null;
         cache.clear();
+        forgetResolvedClasses();
+        fingerprint.set(Fingerprint.EMPTY);
     }
 
     private static String checkVariableRef(String s, String pkg) {
@@ -410,9 +1145,38 @@ public final class Version implements Serializable {
             return null;
         }
         if (s.contains("${")) {
-            logger.warn("variable found in .version file for %s. please make sure your resource has been filtered", pkg);
+            LoggerHolder.logger.warn("variable found in .version file for {}. "
+                    + "please make sure your resource has been filtered", pkg);
         }
         return s;
     }
 
+    /**
+     * Text and UTF-8 encoded forms of a `Version`.
+     */
+    private static final class Rendered {
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        final String text;
+        final byte[] utf8;
+        final byte[] artifactIdUtf8;
+        final byte[] versionUtf8;
+        final byte[] buildNumberUtf8;
+
+        Rendered(Version version) {
+            this.text = new StringBuilder(version.artifactId).append("-").append(version.versionTag).toString();
+            this.utf8 = text.getBytes(UTF_8);
+            this.artifactIdUtf8 = version.artifactId.getBytes(UTF_8);
+            this.versionUtf8 = version.versionTag.getBytes(UTF_8);
+            this.buildNumberUtf8 = version.buildNumber.getBytes(UTF_8);
+        }
+    }
+
+    /**
+     * Defers the logging backend initialization until the first message is logged.
+     */
+    private static final class LoggerHolder {
+        static LogAdapter logger = LogAdapter.get(Version.class);
+    }
+
 }
@@ -0,0 +1,186 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Serves the {@link Version#resolvedVersions() resolved versions} as JSON
+ * through the JDK built-in `HttpServer`.
+ *
+ * The response body is encoded once and reused until a new version is resolved,
+ * and carries a strong `ETag` derived from the {@link Fingerprint} of the versions
+ * in the body. {@link Version#fingerprint()} is only used to detect changes, thus
+ * repeat requests and `304 Not Modified` responses do not rebuild anything.
+ *
+ * The response looks like:
+ *
+ * ```json
+ * {"fingerprint":"...","versions":[{"package":"org.osgl.bootstrap","artifact":"osgl-bootstrap",
+ *  "version":"v1.0.1-SNAPSHOT-ab12","projectVersion":"1.0.1-SNAPSHOT","build":"ab12"}]}
+ * ```
+ */
+public final class VersionHandler implements HttpHandler {
+
+    /**
+     * The default context path, i.e. `/version`.
+     */
+    public static final String DEFAULT_PATH = "/version";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Comparator<Version> BY_PACKAGE = new Comparator<Version>() {
+        @Override
+        public int compare(Version o1, Version o2) {
+            return o1.getPackageName().compareTo(o2.getPackageName());
+        }
+    };
+
+    private volatile Response response;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                return;
+            }
+            Response response = current();
+            exchange.getResponseHeaders().set("ETag", response.etag);
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (null != ifNoneMatch && (ifNoneMatch.contains(response.etag) || "*".equals(ifNoneMatch.trim()))) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (head) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.body.length);
+            OutputStream os = exchange.getResponseBody();
+            os.write(response.body);
+            os.flush();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the response matching the current {@link Version#fingerprint()}.
+     *
+     * @return the current response
+     */
+    private Response current() {
+        Fingerprint fingerprint = Version.fingerprint();
+        Response response = this.response;
+        if (null == response || response.source != fingerprint) {
+            response = new Response(fingerprint, Version.resolvedVersions());
+            this.response = response;
+        }
+        return response;
+    }
+
+    /**
+     * Starts a `HttpServer` serving versions at {@link #DEFAULT_PATH}.
+     *
+     * @param address
+     *      the address to bind to, use port `0` for an ephemeral port
+     * @return
+     *      the started server, the caller is responsible to stop it
+     * @throws IOException
+     *      if the server cannot be bound to the address
+     */
+    public static HttpServer start(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext(DEFAULT_PATH, new VersionHandler());
+        server.start();
+        return server;
+    }
+
+    private static final class Response {
+        // the Version.fingerprint() the response is built for
+        final Fingerprint source;
+        final String etag;
+        final byte[] body;
+
+        Response(Fingerprint source, Collection<Version> versions) {
+            // the versions may have changed after the source fingerprint was read,
+            // thus the ETag is computed from the versions that make the body
+            Fingerprint fingerprint = Fingerprint.of(versions);
+            this.source = source;
+            this.etag = "\"" + fingerprint + "\"";
+            List<Version> sorted = new ArrayList<Version>();
+            for (Version version : versions) {
+                sorted.add(version);
+            }
+            Collections.sort(sorted, BY_PACKAGE);
+            StringBuilder sb = new StringBuilder("{\"fingerprint\":\"").append(fingerprint).append("\",\"versions\":[");
+            for (int i = 0, size = sorted.size(); i < size; i++) {
+                Version version = sorted.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append('{');
+                field(sb, "package", version.getPackageName()).append(',');
+                field(sb, "artifact", version.getArtifactId()).append(',');
+                field(sb, "version", version.getVersion()).append(',');
+                field(sb, "projectVersion", version.getProjectVersion()).append(',');
+                field(sb, "build", version.getBuildNumber());
+                sb.append('}');
+            }
+            sb.append("]}");
+            this.body = sb.toString().getBytes(UTF_8);
+        }
+
+        private static StringBuilder field(StringBuilder sb, String name, String value) {
+            sb.append('"').append(name).append("\":\"");
+            for (int i = 0, len = value.length(); i < len; i++) {
+                char c = value.charAt(i);
+                if ('"' == c || '\\' == c) {
+                    sb.append('\\').append(c);
+                } else if (c < ' ') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.append('"');
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mark a package to have its `Version` compiled into a constant class.
+ *
+ * When a `package-info.java` file is annotated with `@VersionInfo`, the
+ * {@link VersionInfoProcessor} generates a class named
+ * {@value Version#GENERATED_CLASS} in that package. The class holds a
+ * constant `Version` built from the filtered `.version` file of the package,
+ * or from the processor options:
+ *
+ * * `-Aosgl.version.artifact=${project.artifactId}`
+ * * `-Aosgl.version.version=${project.version}`
+ * * `-Aosgl.version.build=${buildNumber}`
+ *
+ * The processor also writes the `.version` file to the class output if the
+ * package does not have one. {@link Version} loads the generated class once
+ * the `.version` resource of the package is found, thus the file is not parsed
+ * at runtime and packages without the file are not probed for the class.
+ *
+ * The processor is not registered as a service, so that it does not run in
+ * every project that has osgl-bootstrap on its compile classpath. Enable it
+ * with `-processor org.osgl.bootstrap.VersionInfoProcessor`, or with the
+ * `annotationProcessors` configuration of the maven compiler plugin.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PACKAGE)
+public @interface VersionInfo {
+}
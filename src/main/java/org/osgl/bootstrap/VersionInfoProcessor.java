@@ -0,0 +1,212 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@value Version#GENERATED_CLASS} class for each package
+ * annotated with {@link VersionInfo}.
+ *
+ * Version information is read from the `.version` file of the package
+ * in the class output directory, i.e. after maven resource filtering,
+ * and can be overwritten by the processor options listed in {@link VersionInfo}.
+ * If the package does not have a `.version` file, one is written from the
+ * processor options so that `Version` knows the package owns a version.
+ */
+@SupportedAnnotationTypes("org.osgl.bootstrap.VersionInfo")
+@SupportedOptions({
+        VersionInfoProcessor.OPT_ARTIFACT,
+        VersionInfoProcessor.OPT_VERSION,
+        VersionInfoProcessor.OPT_BUILD
+})
+public class VersionInfoProcessor extends AbstractProcessor {
+
+    static final String OPT_ARTIFACT = "osgl.version.artifact";
+    static final String OPT_VERSION = "osgl.version.version";
+    static final String OPT_BUILD = "osgl.version.build";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(VersionInfo.class)) {
+            if (ElementKind.PACKAGE != element.getKind()) {
+                continue;
+            }
+            String packageName = ((PackageElement) element).getQualifiedName().toString();
+            Properties properties = loadVersionFile(packageName);
+            boolean hasVersionFile = null != properties;
+            if (!hasVersionFile) {
+                properties = new Properties();
+            }
+            override(properties, "artifact", OPT_ARTIFACT);
+            override(properties, "version", OPT_VERSION);
+            override(properties, "build", OPT_BUILD);
+            String artifactId = properties.getProperty("artifact");
+            if (isBlank(artifactId)) {
+                artifactId = packageName;
+            }
+            String projectVersion = properties.getProperty("version");
+            if (isBlank(projectVersion)) {
+                error(element, "version not defined for package: " + packageName);
+                continue;
+            }
+            String buildNumber = properties.getProperty("build");
+            try {
+                generate(element, packageName, artifactId, projectVersion, null == buildNumber ? "" : buildNumber);
+            } catch (IOException e) {
+                error(element, "error generating version class for package " + packageName + ": " + e.getMessage());
+                continue;
+            }
+            if (!hasVersionFile) {
+                properties.setProperty("artifact", artifactId);
+                try {
+                    writeVersionFile(element, packageName, properties);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "error writing .version file for package " + packageName + ": " + e.getMessage(), element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private Properties loadVersionFile(String packageName) {
+        Properties properties = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, packageName, ".version");
+            InputStream is = file.openInputStream();
+            try {
+                properties.load(is);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            // no .version file, rely on processor options
+            return null;
+        } catch (IllegalArgumentException e) {
+            // the file manager does not support reading class output
+            return null;
+        }
+        return properties;
+    }
+
+    private void writeVersionFile(Element element, String packageName, Properties properties) throws IOException {
+        FileObject file = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT, packageName, ".version", element);
+        OutputStream os = file.openOutputStream();
+        try {
+            properties.store(os, "Generated by " + VersionInfoProcessor.class.getName());
+        } finally {
+            os.close();
+        }
+    }
+
+    private void override(Properties properties, String key, String option) {
+        Map<String, String> options = processingEnv.getOptions();
+        String value = options.get(option);
+        if (!isBlank(value)) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private void generate(Element element, String packageName, String artifactId,
+                          String projectVersion, String buildNumber) throws IOException {
+        String className = packageName + "." + Version.GENERATED_CLASS;
+        JavaFileObject source = processingEnv.getFiler().createSourceFile(className, element);
+        Writer writer = source.openWriter();
+        try {
+            writer.append("package ").append(packageName).append(";\n\n")
+                    .append("/**\n * Generated by ").append(VersionInfoProcessor.class.getName()).append(".\n */\n")
+                    .append("public final class ").append(Version.GENERATED_CLASS).append(" {\n\n")
+                    .append("    public static final ").append(Version.class.getName()).append(" ")
+                    .append(Version.GENERATED_FIELD).append(" = new ").append(Version.class.getName()).append("(")
+                    .append(literal(packageName)).append(", ")
+                    .append(literal(artifactId)).append(", ")
+                    .append(literal(projectVersion)).append(", ")
+                    .append(literal(buildNumber)).append(");\n\n")
+                    .append("    private ").append(Version.GENERATED_CLASS).append("() {\n    }\n\n")
+                    .append("}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static boolean isBlank(String s) {
+        return null == s || "".equals(s.trim());
+    }
+
+    static String literal(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    if (c < ' ') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
@@ -0,0 +1,312 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Scans jar files for `.version` files without starting the application.
+ *
+ * Each jar file is memory mapped and only its zip central directory is walked to
+ * find `.version` entries, other entries are never read or inflated. Jar files
+ * are scanned in parallel.
+ *
+ * Usage:
+ *
+ * ```
+ * java -jar osgl-bootstrap.jar scan lib/ app.jar
+ * ```
+ *
+ * Arguments are jar files or directories. Directories are searched recursively for `*.jar` files. Each version found
+ * is printed in the format of {@link Version#toString()}.
+ */
+public final class VersionScanner {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String VERSION_FILE = "/.version";
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private VersionScanner() {
+    }
+
+    /**
+     * Returns versions of all `.version` files found in a jar file.
+     *
+     * @param jar
+     *      the jar file
+     * @return
+     *      versions found in the jar file, {@link Version#UNKNOWN} is not included
+     * @throws IOException
+     *      if the jar file cannot be read or is not a valid zip file
+     */
+    public static List<Version> scan(File jar) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(jar, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("jar file too large");
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            return scan(buf, jar);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Scans jar files in parallel and prints each version found as soon as
+     * the jar file is scanned.
+     *
+     * @param jars
+     *      the jar files
+     * @param out
+     *      the stream to print versions to
+     * @param err
+     *      the stream to print jar files failed to be scanned to
+     * @return
+     *      the number of jar files failed to be scanned
+     * @throws InterruptedException
+     *      if interrupted while waiting for scanning to complete
+     */
+    public static int scan(List<File> jars, PrintStream out, PrintStream err) throws InterruptedException {
+        int threads = Math.max(1, Math.min(jars.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletionService<List<Version>> completion = new ExecutorCompletionService<List<Version>>(executor);
+            for (final File jar : jars) {
+                completion.submit(new Callable<List<Version>>() {
+                    @Override
+                    public List<Version> call() throws IOException {
+                        try {
+                            return scan(jar);
+                        } catch (IOException e) {
+                            throw new IOException(jar + ": " + e.getMessage(), e);
+                        } catch (RuntimeException e) {
+                            throw new IOException(jar + ": " + e, e);
+                        }
+                    }
+                });
+            }
+            int failures = 0;
+            for (int i = jars.size(); i > 0; i--) {
+                try {
+                    for (Version version : completion.take().get()) {
+                        out.println(version);
+                    }
+                } catch (ExecutionException e) {
+                    err.println(e.getCause().getMessage());
+                    failures++;
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Version> scan(MappedByteBuffer buf, File jar) throws IOException {
+        int eocd = findEndOfCentralDirectory(buf);
+        if (eocd < 0) {
+            throw new IOException("zip end of central directory not found");
+        }
+        int entries = buf.getShort(eocd + 10) & 0xFFFF;
+        long cenOffset = buf.getInt(eocd + 16) & 0xFFFFFFFFL;
+        if (cenOffset >= buf.limit()) {
+            throw new IOException("zip64 or invalid central directory offset");
+        }
+        List<Version> versions = new ArrayList<Version>();
+        int pos = (int) cenOffset;
+        for (int i = 0; i < entries; i++) {
+            if (pos + CEN_SIZE > buf.limit() || buf.getInt(pos) != CEN_SIGNATURE) {
+                throw new IOException("invalid zip central directory entry");
+            }
+            int nameLength = buf.getShort(pos + 28) & 0xFFFF;
+            int extraLength = buf.getShort(pos + 30) & 0xFFFF;
+            int commentLength = buf.getShort(pos + 32) & 0xFFFF;
+            if (pos + CEN_SIZE + nameLength + extraLength + commentLength > buf.limit()) {
+                throw new IOException("invalid zip central directory entry");
+            }
+            if (endsWithVersionFile(buf, pos + CEN_SIZE, nameLength)) {
+                String name = string(buf, pos + CEN_SIZE, nameLength);
+                String packageName = name.substring(0, name.length() - VERSION_FILE.length()).replace('/', '.');
+                Version version = Version.loadFrom(properties(buf, pos), packageName);
+                if (!version.isUnknown()) {
+                    versions.add(version);
+                }
+            }
+            pos += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+        return versions;
+    }
+
+    /**
+     * Entry point of `java -jar osgl-bootstrap.jar`.
+     *
+     * @param args
+     *      `scan` followed by jar files or directories
+     * @throws InterruptedException
+     *      if interrupted while scanning
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2 || !"scan".equals(args[0])) {
+            System.err.println("Usage: java -jar osgl-bootstrap.jar scan <jar-or-dir>...");
+            System.exit(1);
+        }
+        List<File> jars = new ArrayList<File>();
+        for (int i = 1; i < args.length; i++) {
+            collect(new File(args[i]), jars);
+        }
+        System.exit(scan(jars, System.out, System.err) > 0 ? 2 : 0);
+    }
+
+    static void collect(File file, List<File> jars) {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+            if (null != files) {
+                for (File child : files) {
+                    collect(child, jars);
+                }
+            }
+        } else if (file.getName().endsWith(".jar")) {
+            jars.add(file);
+        }
+    }
+
+    private static int findEndOfCentralDirectory(MappedByteBuffer buf) {
+        int limit = buf.limit();
+        int min = Math.max(0, limit - EOCD_SIZE - MAX_COMMENT_SIZE);
+        for (int pos = limit - EOCD_SIZE; pos >= min; pos--) {
+            if (buf.getInt(pos) == EOCD_SIGNATURE) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean endsWithVersionFile(MappedByteBuffer buf, int offset, int length) {
+        int suffixLength = VERSION_FILE.length();
+        // a version file must have a package
+        if (length <= suffixLength) {
+            return false;
+        }
+        int start = offset + length - suffixLength;
+        for (int i = 0; i < suffixLength; i++) {
+            if (buf.get(start + i) != VERSION_FILE.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Properties properties(MappedByteBuffer buf, int cen) throws IOException {
+        int method = buf.getShort(cen + 10) & 0xFFFF;
+        long compressedSize = buf.getInt(cen + 20) & 0xFFFFFFFFL;
+        long size = buf.getInt(cen + 24) & 0xFFFFFFFFL;
+        long loc = buf.getInt(cen + 42) & 0xFFFFFFFFL;
+        if (loc + LOC_SIZE > buf.limit() || buf.getInt((int) loc) != LOC_SIGNATURE) {
+            throw new IOException("invalid zip local file header");
+        }
+        int data = (int) loc + LOC_SIZE + (buf.getShort((int) loc + 26) & 0xFFFF) + (buf.getShort((int) loc + 28) & 0xFFFF);
+        if (data + compressedSize > buf.limit() || size > Integer.MAX_VALUE) {
+            throw new IOException("invalid zip entry size");
+        }
+        if (STORED != method && DEFLATED != method) {
+            throw new IOException("unsupported zip compression method: " + method);
+        }
+        // inflater in nowrap mode requires an extra dummy byte at the end of input
+        byte[] compressed = new byte[(int) compressedSize + (DEFLATED == method ? 1 : 0)];
+        for (int i = 0; i < compressedSize; i++) {
+            compressed[i] = buf.get(data + i);
+        }
+        byte[] content = STORED == method ? compressed : inflate(compressed, (int) size);
+        Properties properties = new Properties();
+        try {
+            properties.load(new ByteArrayInputStream(content));
+        } catch (IllegalArgumentException e) {
+            // malformed unicode escape
+            throw new IOException("invalid .version file: " + e.getMessage(), e);
+        }
+        return properties;
+    }
+
+    private static byte[] inflate(byte[] compressed, int size) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] content = new byte[size];
+            int n = 0;
+            while (n < size && !inflater.finished()) {
+                int read = inflater.inflate(content, n, size - n);
+                if (0 == read && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != size) {
+                throw new IOException("corrupted zip entry");
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new IOException("corrupted zip entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String string(MappedByteBuffer buf, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+}
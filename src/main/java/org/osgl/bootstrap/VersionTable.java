@@ -0,0 +1,98 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+
+/**
+ * An immutable open addressing table maps package names to {@link Version versions}.
+ *
+ * Keys and values are interleaved in a single array which is sized to keep the
+ * load factor below `0.5`, thus a lookup is usually one hash, one array read
+ * and one equality check.
+ *
+ * @see Version#seal()
+ */
+final class VersionTable {
+
+    private final Object[] table;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Whether a lookup miss shall be answered with {@link Version#UNKNOWN}
+     * instead of falling back to resource loading.
+     */
+    final boolean strict;
+
+    VersionTable(Map<String, Version> mappings, boolean strict) {
+        int capacity = 2;
+        while (capacity < mappings.size() * 2) {
+            capacity <<= 1;
+        }
+        this.table = new Object[capacity * 2];
+        this.mask = capacity - 1;
+        this.size = mappings.size();
+        this.strict = strict;
+        for (Map.Entry<String, Version> entry : mappings.entrySet()) {
+            String key = entry.getKey();
+            int i = index(key);
+            while (null != table[i]) {
+                i = (i + 2) & (table.length - 1);
+            }
+            table[i] = key;
+            table[i + 1] = entry.getValue();
+        }
+    }
+
+    /**
+     * Returns the version mapped to the package name specified.
+     *
+     * @param packageName
+     *      the package name
+     * @return
+     *      the version mapped or `null` if not found
+     */
+    Version get(String packageName) {
+        Object[] table = this.table;
+        int i = index(packageName);
+        Object key = table[i];
+        while (null != key) {
+            if (packageName.equals(key)) {
+                return (Version) table[i + 1];
+            }
+            i = (i + 2) & (table.length - 1);
+            key = table[i];
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int index(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & mask) << 1;
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.osgl.bootstrap.logback;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import org.osgl.bootstrap.Version;
+
+/**
+ * A Logback throwable converter that appends the library version to each stack frame,
+ * e.g.
+ *
+ * ```
+ * at org.mrcool.swissknife.SwissKnife.cut(SwissKnife.java:10) [swissknife-r1.0-3a77]
+ * ```
+ *
+ * Unlike Logback's packaging data, versions are resolved through
+ * {@link Version#ofFrame(StackTraceElement)} which caches by class name, thus
+ * the cost for a frame seen before is a map lookup. Frames of unknown
+ * version are printed as is.
+ *
+ * Register the converter in `logback.xml`:
+ *
+ * ```xml
+ * <conversionRule conversionWord="vEx"
+ *                 converterClass="org.osgl.bootstrap.logback.VersionThrowableProxyConverter" />
+ * <appender name="STDOUT" class="ch.qos.logback.core.ConsoleAppender">
+ *   <encoder>
+ *     <pattern>%d %-5level %logger - %msg%n%vEx</pattern>
+ *   </encoder>
+ * </appender>
+ * ```
+ */
+public class VersionThrowableProxyConverter extends ThrowableProxyConverter {
+
+    @Override
+    protected void extraData(StringBuilder builder, StackTraceElementProxy step) {
+        Version version = Version.ofFrame(step.getStackTraceElement());
+        if (!version.isUnknown()) {
+            version.appendTo(builder.append(" [")).append(']');
+        }
+    }
+
+}
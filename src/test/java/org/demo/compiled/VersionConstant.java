@@ -0,0 +1,36 @@
+package org.demo.compiled;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.bootstrap.Version;
+
+/**
+ * This mimics the class generated by `VersionInfoProcessor` for testing
+ * the version utility
+ */
+public final class VersionConstant {
+
+    public static final Version VERSION = new Version("org.demo.compiled", "compiled", "2.0", "c0de");
+
+    private VersionConstant() {
+    }
+
+}
@@ -0,0 +1,145 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH benchmarks of a benchmark test class from JUnit and
+ * reports the results.
+ */
+final class BenchmarkRunner {
+
+    /**
+     * The {@link GCProfiler} result of bytes allocated per operation.
+     */
+    static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private final Class<?> benchmarkClass;
+    private final Map<String, RunResult> results = new TreeMap<String, RunResult>();
+
+    private BenchmarkRunner(Class<?> benchmarkClass) {
+        this.benchmarkClass = benchmarkClass;
+    }
+
+    /**
+     * Run all benchmarks declared in a class.
+     *
+     * @param benchmarkClass
+     *      the class declaring the benchmarks
+     * @param profileAllocation
+     *      whether to profile the benchmarks with {@link GCProfiler}
+     * @return
+     *      the runner holding the results
+     * @throws RunnerException
+     *      if JMH failed to run the benchmarks
+     */
+    static BenchmarkRunner run(Class<?> benchmarkClass, boolean profileAllocation) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder().include(benchmarkClass.getName());
+        if (profileAllocation) {
+            options.addProfiler(GCProfiler.class);
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(benchmarkClass);
+        for (RunResult result : new Runner(options.build()).run()) {
+            runner.results.put(key(result.getParams()), result);
+        }
+        return runner;
+    }
+
+    /**
+     * Returns the primary score of a benchmark.
+     *
+     * @param key
+     *      the benchmark method name, followed by `:` and the value of each
+     *      parameter for parameterized benchmarks, e.g. `ofPackage:true`
+     * @return
+     *      the score
+     */
+    double score(String key) {
+        return result(key).getPrimaryResult().getScore();
+    }
+
+    /**
+     * Returns bytes allocated per operation of a benchmark run with `profileAllocation`.
+     *
+     * @param key
+     *      the benchmark key, see {@link #score(String)}
+     * @return
+     *      bytes allocated per operation
+     */
+    double allocation(String key) {
+        Result allocation = result(key).getSecondaryResults().get(ALLOCATION);
+        Assert.assertNotNull("allocation not profiled: " + key, allocation);
+        return allocation.getScore();
+    }
+
+    /**
+     * Report the score and allocation of each benchmark and assert that none allocates.
+     */
+    void assertNoAllocation() {
+        for (Map.Entry<String, RunResult> entry : results.entrySet()) {
+            String key = entry.getKey();
+            double allocation = allocation(key);
+            report("%s: %.1f %s, %.1f B/op", key, score(key),
+                    entry.getValue().getPrimaryResult().getScoreUnit(), allocation);
+            Assert.assertTrue(key + " allocates", allocation < 1.0);
+        }
+    }
+
+    /**
+     * Print a line prefixed with the simple name of the benchmark class.
+     *
+     * @param format
+     *      the format string
+     * @param args
+     *      the format arguments
+     */
+    void report(String format, Object... args) {
+        System.out.println("[" + benchmarkClass.getSimpleName() + "] " + String.format(format, args));
+    }
+
+    private RunResult result(String key) {
+        RunResult result = results.get(key);
+        Assert.assertNotNull("benchmark not run: " + key, result);
+        return result;
+    }
+
+    private static String key(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        StringBuilder sb = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.') + 1));
+        for (String param : params.getParamsKeys()) {
+            sb.append(':').append(params.getParam(param));
+        }
+        return sb.toString();
+    }
+
+}
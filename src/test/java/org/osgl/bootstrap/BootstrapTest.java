@@ -23,6 +23,11 @@ package org.osgl.bootstrap;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
 public class BootstrapTest extends Assert {
 
     @Test
@@ -31,4 +36,38 @@ public class BootstrapTest extends Assert {
         assertEquals("osgl-bootstrap", version.getArtifactId());
     }
 
+    @Test
+    public void initializingBootstrapShallNotLoadResourceOrLoggingBackend() throws Exception {
+        RecordingClassLoader loader = new RecordingClassLoader();
+        Class<?> bootstrap = Class.forName(Bootstrap.class.getName(), true, loader);
+        Object version = bootstrap.getField("VERSION").get(null);
+        assertFalse(loader.loaded.contains(PropertyLoader.class.getName()));
+        assertFalse(loader.loaded.contains(LogAdapter.class.getName()));
+        assertFalse(loader.loaded.contains("org.slf4j.LoggerFactory"));
+        assertEquals(Version.class.getName(), version.getClass().getName());
+    }
+
+    /**
+     * Loads osgl-bootstrap and slf4j classes in isolation and records
+     * every class it defines.
+     */
+    private static class RecordingClassLoader extends URLClassLoader {
+
+        final Set<String> loaded = new ConcurrentSkipListSet<String>();
+
+        RecordingClassLoader() {
+            super(new URL[] {
+                Version.class.getProtectionDomain().getCodeSource().getLocation(),
+                org.slf4j.LoggerFactory.class.getProtectionDomain().getCodeSource().getLocation()
+            }, null);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Class<?> c = super.findClass(name);
+            loaded.add(name);
+            return c;
+        }
+    }
+
 }
@@ -0,0 +1,160 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of resolving the versions of classes in jars with many packages
+ * with {@link Version#of(Class)}, which reads each jar once through the code source
+ * index, versus {@link Version#ofPackage(String)}, which probes the classpath for
+ * every package level.
+ *
+ * Each iteration loads `Version` in a fresh class loader over the synthetic jars.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=CodeSourceBenchmark`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+public class CodeSourceBenchmark extends Assert {
+
+    private static final int JARS = 20;
+    private static final int PACKAGES = 50;
+    private static final int DEPTH = 2;
+
+    private File dir;
+    private SyntheticClasspath classpath;
+    private SyntheticClasspath.Isolated isolated;
+    private List<Class<?>> classes;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("osgl-bootstrap").toFile();
+        classpath = new SyntheticClasspath(dir, JARS, PACKAGES, DEPTH, true);
+    }
+
+    @Setup(Level.Iteration)
+    public void isolate() throws Exception {
+        isolated = classpath.isolate();
+        classes = new ArrayList<Class<?>>();
+        for (String pkg : classpath.leafPackages()) {
+            classes.add(isolated.loadClass(pkg));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws Exception {
+        isolated.loader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        for (File file : classpath.files) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public Object ofPackage() throws Exception {
+        Object last = null;
+        for (Class<?> c : classes) {
+            last = isolated.ofPackage(c.getName().substring(0, c.getName().lastIndexOf('.')));
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object ofClass() throws Exception {
+        Object last = null;
+        for (Class<?> c : classes) {
+            last = isolated.of(c);
+        }
+        return last;
+    }
+
+    @Test
+    public void codeSourceIndexShallProbeClasspathOncePerJar() throws Exception {
+        dir = Files.createTempDirectory("osgl-bootstrap").toFile();
+        try {
+            classpath = new SyntheticClasspath(dir, JARS, PACKAGES, DEPTH, true);
+            isolate();
+            try {
+                List<String> expected = new ArrayList<String>();
+                for (Class<?> c : classes) {
+                    expected.add(isolated.ofPackage(c.getName().substring(0, c.getName().lastIndexOf('.'))).toString());
+                }
+                int byPackage = isolated.loader.probes.get();
+                close();
+                isolate();
+                for (int i = 0; i < classes.size(); i++) {
+                    assertEquals(expected.get(i), isolated.of(classes.get(i)).toString());
+                }
+                int byClass = isolated.loader.probes.get();
+                System.out.printf("[CodeSourceBenchmark] %d classes: %d probes by package, %d probes by class%n",
+                        classes.size(), byPackage, byClass);
+                // the `.version` file of each jar is probed once to confirm it is
+                // the one found on the classpath
+                assertEquals(JARS, byClass);
+                // one `.version` probe per package level, the generated class is
+                // probed only in the root packages that have a `.version` file
+                assertEquals(classes.size() * DEPTH + 2 * JARS, byPackage);
+            } finally {
+                close();
+            }
+        } finally {
+            delete();
+        }
+    }
+
+    @Test
+    public void ofClassShallBeFasterThanOfPackage() throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.run(getClass(), false);
+        double ofPackage = runner.score("ofPackage");
+        double ofClass = runner.score("ofClass");
+        runner.report("%d packages: ofPackage %.1f us, ofClass %.1f us", JARS * PACKAGES, ofPackage, ofClass);
+        assertTrue("code source lookup regressed", ofClass < ofPackage);
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of mapping a repeated stack trace to versions with
+ * {@link Version#ofFrames(StackTraceElement[], Version[])} versus Logback's
+ * packaging data calculation.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=FrameVersionBenchmark`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameVersionBenchmark extends Assert {
+
+    private Throwable throwable;
+    private StackTraceElement[] frames;
+    private Version[] versions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        throwable = new RuntimeException();
+        frames = throwable.getStackTrace();
+        versions = new Version[frames.length];
+    }
+
+    @Benchmark
+    public Version[] ofFrames() {
+        return Version.ofFrames(frames, versions);
+    }
+
+    @Benchmark
+    public ThrowableProxy logbackPackagingData() {
+        ThrowableProxy proxy = new ThrowableProxy(throwable);
+        proxy.calculatePackagingData();
+        return proxy;
+    }
+
+    @Test
+    public void ofFramesShallBeFasterThanPackagingDataAndNotAllocate() throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.run(getClass(), true);
+        double ofFrames = runner.score("ofFrames");
+        double packagingData = runner.score("logbackPackagingData");
+        double allocation = runner.allocation("ofFrames");
+        runner.report("ofFrames %.1f ns/op (%.1f B/op), logback packaging data %.1f ns/op",
+                ofFrames, allocation, packagingData);
+        assertTrue("ofFrames regressed", ofFrames < packagingData);
+        assertTrue("ofFrames allocates", allocation < 1.0);
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the first access of the `VERSION` static field of 80 libraries
+ * initialized with {@link Version#lazyOfPackage(String)}, versus initializing
+ * the fields with {@link Version#ofPackage(String)}.
+ *
+ * A lazy field defers the lookup from static initialization to the first getter
+ * call, the benchmark checks that the deferred lookup does not cost more than the
+ * eager one. Each iteration loads `Version` in a fresh class loader over 80 synthetic
+ * jars and initializes the lazy fields before the measurement, thus every lookup
+ * hits the classpath.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=LazyVersionBenchmark`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(5)
+public class LazyVersionBenchmark extends Assert {
+
+    private static final int LIBRARIES = 80;
+
+    private File dir;
+    private SyntheticClasspath classpath;
+    private SyntheticClasspath.Isolated isolated;
+    private Object[] lazyFields;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("osgl-bootstrap").toFile();
+        classpath = new SyntheticClasspath(dir, LIBRARIES, 1, 1);
+    }
+
+    @Setup(Level.Iteration)
+    public void initialize() throws Exception {
+        isolated = classpath.isolate();
+        lazyFields = new Object[LIBRARIES];
+        for (int i = 0; i < LIBRARIES; i++) {
+            lazyFields[i] = isolated.lazyOfPackage(SyntheticClasspath.rootPackage(i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws Exception {
+        isolated.loader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        for (File file : classpath.files) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public Object eagerInit() throws Exception {
+        Object last = null;
+        for (int i = 0; i < LIBRARIES; i++) {
+            last = isolated.ofPackage(SyntheticClasspath.rootPackage(i));
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object lazyFirstAccess() throws Exception {
+        Object last = null;
+        for (Object field : lazyFields) {
+            last = isolated.artifactId(field);
+        }
+        return last;
+    }
+
+    @Test
+    public void firstAccessOfLazyFieldShallNotCostMoreThanEagerInit() throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.run(getClass(), false);
+        double eager = runner.score("eagerInit");
+        double lazy = runner.score("lazyFirstAccess");
+        runner.report("%d libraries: eager init %.1f us, lazy first access %.1f us", LIBRARIES, eager, lazy);
+        // allow 25% noise
+        assertTrue("lazy version regressed", lazy <= eager * 1.25);
+    }
+
+}
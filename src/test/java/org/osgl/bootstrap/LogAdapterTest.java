@@ -0,0 +1,35 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogAdapterTest extends Assert {
+
+    @Test
+    public void julMessageShallUseSlf4jPlaceholder() {
+        assertEquals("version not defined in .version file: org.demo",
+                LogAdapter.format("version not defined in .version file: {}", "org.demo"));
+        assertEquals("no placeholder", LogAdapter.format("no placeholder", "org.demo"));
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of looking up versions of JDK classes and runtime generated
+ * proxy classes, profiled for allocation.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=PlatformPackageBenchmark`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlatformPackageBenchmark extends Assert {
+
+    private Class<?> proxyClass;
+    private StackTraceElement frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Version.clearCache();
+        proxyClass = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Runnable.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                }).getClass();
+        frame = new StackTraceElement(Thread.class.getName(), "run", "Thread.java", 748);
+    }
+
+    @Benchmark
+    public Version ofJdkClass() {
+        return Version.of(String.class);
+    }
+
+    @Benchmark
+    public Version ofProxyClass() {
+        return Version.of(proxyClass);
+    }
+
+    @Benchmark
+    public Version ofJdkPackage() {
+        return Version.ofPackage("java.util.concurrent");
+    }
+
+    @Benchmark
+    public Version ofJdkFrame() {
+        return Version.ofFrame(frame);
+    }
+
+    @Test
+    public void platformLookupShallNotAllocate() throws Exception {
+        BenchmarkRunner.run(getClass(), true).assertNoAllocation();
+    }
+
+}
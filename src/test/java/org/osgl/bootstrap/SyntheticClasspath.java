@@ -0,0 +1,236 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Generates jar files with synthetic packages and `.version` files
+ * for footprint and scaling benchmarks.
+ *
+ * Jar `n` contains the root package `synth.jar<n>` with a `.version`
+ * file, and `packages` leaf packages of `depth` levels below it, e.g.
+ * `synth.jar3.p7.d1.d2` for depth 3. Optionally each leaf package
+ * contains an empty class named {@link #CLASS_NAME}.
+ */
+class SyntheticClasspath {
+
+    static final String CLASS_NAME = "Marker";
+
+    final File dir;
+    final int jars;
+    final int packages;
+    final int depth;
+    final boolean classes;
+    final List<File> files = new ArrayList<File>();
+
+    SyntheticClasspath(File dir, int jars, int packages, int depth) throws IOException {
+        this(dir, jars, packages, depth, false);
+    }
+
+    SyntheticClasspath(File dir, int jars, int packages, int depth, boolean classes) throws IOException {
+        this.dir = dir;
+        this.jars = jars;
+        this.packages = packages;
+        this.depth = depth;
+        this.classes = classes;
+        for (int i = 0; i < jars; i++) {
+            files.add(generate(i));
+        }
+    }
+
+    static String rootPackage(int jar) {
+        return "synth.jar" + jar;
+    }
+
+    String leafPackage(int jar, int pkg) {
+        StringBuilder sb = new StringBuilder(rootPackage(jar)).append(".p").append(pkg);
+        for (int i = 1; i < depth; i++) {
+            sb.append(".d").append(i);
+        }
+        return sb.toString();
+    }
+
+    List<String> leafPackages() {
+        List<String> list = new ArrayList<String>(jars * packages);
+        for (int i = 0; i < jars; i++) {
+            for (int j = 0; j < packages; j++) {
+                list.add(leafPackage(i, j));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns a class loader that loads osgl-bootstrap classes in isolation
+     * together with the synthetic jars, so that `Version` resolves packages
+     * against the synthetic classpath with an empty cache.
+     */
+    Isolated isolate() throws Exception {
+        List<URL> urls = new ArrayList<URL>();
+        urls.add(Version.class.getProtectionDomain().getCodeSource().getLocation());
+        for (File file : files) {
+            urls.add(file.toURI().toURL());
+        }
+        return new Isolated(new ProbeCountingClassLoader(urls.toArray(new URL[urls.size()])));
+    }
+
+    private File generate(int jar) throws IOException {
+        File file = new File(dir, "synth-" + jar + ".jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(file));
+        try {
+            String root = rootPackage(jar).replace('.', '/');
+            jos.putNextEntry(new ZipEntry(root + "/.version"));
+            jos.write(("artifact=synth-" + jar + "\nversion=1.0." + jar + "\nbuild=b" + jar).getBytes("UTF-8"));
+            jos.closeEntry();
+            for (int i = 0; i < packages; i++) {
+                String leaf = leafPackage(jar, i).replace('.', '/');
+                jos.putNextEntry(new ZipEntry(leaf + "/"));
+                jos.closeEntry();
+                if (classes) {
+                    jos.putNextEntry(new ZipEntry(leaf + "/" + CLASS_NAME + ".class"));
+                    jos.write(emptyClass(leaf + "/" + CLASS_NAME));
+                    jos.closeEntry();
+                }
+            }
+        } finally {
+            jos.close();
+        }
+        return file;
+    }
+
+    /**
+     * Returns the class file of a public class without members that extends `Object`.
+     */
+    static byte[] emptyClass(String internalName) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(50);
+        out.writeShort(5);
+        out.writeByte(1);
+        out.writeUTF(internalName);
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeShort(0x21);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Class loader that counts the classpath probes for version descriptors.
+     */
+    static class ProbeCountingClassLoader extends URLClassLoader {
+        final AtomicInteger probes = new AtomicInteger();
+
+        ProbeCountingClassLoader(URL[] urls) {
+            super(urls, null);
+        }
+
+        @Override
+        public URL findResource(String name) {
+            if (name.endsWith("/.version")) {
+                probes.incrementAndGet();
+            }
+            return super.findResource(name);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (name.endsWith("." + Version.GENERATED_CLASS)) {
+                probes.incrementAndGet();
+            }
+            return super.findClass(name);
+        }
+    }
+
+    /**
+     * Reflective access to an isolated `Version` class.
+     */
+    static class Isolated {
+        final ProbeCountingClassLoader loader;
+        final Class<?> versionClass;
+        private final Method ofPackage;
+        private final Method lazyOfPackage;
+        private final Method of;
+        private final Method getArtifactId;
+
+        Isolated(ProbeCountingClassLoader loader) throws Exception {
+            this.loader = loader;
+            this.versionClass = Class.forName(Version.class.getName(), true, loader);
+            this.ofPackage = versionClass.getMethod("ofPackage", String.class);
+            this.lazyOfPackage = versionClass.getMethod("lazyOfPackage", String.class);
+            this.of = versionClass.getMethod("of", Class.class);
+            this.getArtifactId = versionClass.getMethod("getArtifactId");
+        }
+
+        Object ofPackage(String packageName) throws Exception {
+            return ofPackage.invoke(null, packageName);
+        }
+
+        Object of(Class<?> clazz) throws Exception {
+            return of.invoke(null, clazz);
+        }
+
+        Class<?> loadClass(String packageName) throws ClassNotFoundException {
+            return Class.forName(packageName + "." + CLASS_NAME, false, loader);
+        }
+
+        Object lazyOfPackage(String packageName) throws Exception {
+            return lazyOfPackage.invoke(null, packageName);
+        }
+
+        String artifactId(Object version) throws Exception {
+            return (String) getArtifactId.invoke(version);
+        }
+
+        Object staticField(String name) throws Exception {
+            Field field = versionClass.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(null);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mrcool.swissknife.SwissKnife;
+import org.mrcool.swissknife.db.DbUtil;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Cheap footprint and allocation checks that run with the default build.
+ *
+ * The JMH benchmarks in the `benchmark` profile measure the same with less
+ * noise, this test only guards against obvious regressions.
+ */
+public class VersionFootprintTest extends Assert {
+
+    private static final int LOOKUPS = 100000;
+
+    // allowance for the measurement itself, far below one byte per lookup
+    private static final long MAX_ALLOCATED_BYTES = 4096;
+
+    private static final long MAX_RETAINED_BYTES_PER_VERSION = 600;
+
+    @Before
+    public void prepare() {
+        Version.clearCache();
+    }
+
+    @Test
+    public void cachedLookupShallNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+
+        String pkg = DbUtil.class.getPackage().getName();
+        lookup(pkg);
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        lookup(pkg);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("cached lookup allocates: " + allocated + " bytes for " + LOOKUPS + " lookups",
+                allocated <= MAX_ALLOCATED_BYTES);
+    }
+
+    @Test
+    public void retainedHeapPerVersion() {
+        Version version = Version.of(SwissKnife.class);
+        long size = GraphLayout.parseInstance(version).totalSize();
+        assertTrue("retained heap of version: " + size + " bytes", size <= MAX_RETAINED_BYTES_PER_VERSION);
+    }
+
+    private static void lookup(String pkg) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Version.of(DbUtil.class);
+            Version.ofPackage(pkg);
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mrcool.swissknife.SwissKnife;
+import org.mrcool.swissknife.db.DbUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link VersionHandler#handle(HttpExchange)} serving repeat
+ * and `304 Not Modified` responses, profiled for allocation, and a load test of
+ * the handler over HTTP on localhost.
+ *
+ * The benchmark passes a reused exchange to the handler. The JDK `Headers`
+ * normalizes the header name on every access, thus the exchange uses headers
+ * that do not allocate, so that only the allocation of the handler is measured.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=VersionHandlerBenchmark`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionHandlerBenchmark extends Assert {
+
+    private static final int REQUESTS = 2000;
+
+    private VersionHandler handler;
+    private Exchange repeat;
+    private Exchange conditional;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Version.clearCache();
+        Version.of(SwissKnife.class);
+        Version.of(DbUtil.class);
+        handler = new VersionHandler();
+        repeat = new Exchange(null);
+        handler.handle(repeat);
+        assertEquals(HttpURLConnection.HTTP_OK, repeat.status);
+        conditional = new Exchange(repeat.responseHeaders.value);
+        handler.handle(conditional);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, conditional.status);
+    }
+
+    @Benchmark
+    public int repeatRequest() throws IOException {
+        handler.handle(repeat);
+        return repeat.status;
+    }
+
+    @Benchmark
+    public int notModified() throws IOException {
+        handler.handle(conditional);
+        return conditional.status;
+    }
+
+    @Test
+    public void repeatAndNotModifiedResponsesShallNotAllocate() throws Exception {
+        BenchmarkRunner.run(getClass(), true).assertNoAllocation();
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        Version.clearCache();
+        Version.of(SwissKnife.class);
+        Version.of(DbUtil.class);
+        HttpServer server = VersionHandler.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        final URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + VersionHandler.DEFAULT_PATH);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final String etag = open(url, null).getHeaderField("ETag");
+            long start = System.nanoTime();
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < REQUESTS; i++) {
+                final boolean conditional = 0 == i % 2;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        HttpURLConnection conn = open(url, conditional ? etag : null);
+                        int status = conn.getResponseCode();
+                        if (200 == status) {
+                            drain(conn);
+                        }
+                        return status;
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(0 == i % 2 ? 304 : 200, futures.get(i).get().intValue());
+            }
+            long micros = (System.nanoTime() - start) / 1000L;
+            System.out.printf("[VersionHandlerBenchmark] %d requests over HTTP: %d us, %d requests/s%n",
+                    REQUESTS, micros, REQUESTS * 1000000L / Math.max(1L, micros));
+        } finally {
+            executor.shutdown();
+            server.stop(0);
+        }
+    }
+
+    private static HttpURLConnection open(URL url, String ifNoneMatch) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        if (null != ifNoneMatch) {
+            conn.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        return conn;
+    }
+
+    private static void drain(HttpURLConnection conn) throws IOException {
+        InputStream is = conn.getInputStream();
+        try {
+            byte[] buf = new byte[1024];
+            while (is.read(buf) >= 0) {
+                continue;
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Headers holding a single value that do not allocate on access.
+     */
+    private static final class SingleHeader extends Headers {
+        private final String name;
+        private String value;
+
+        SingleHeader(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String getFirst(String key) {
+            return name.equalsIgnoreCase(key) ? value : null;
+        }
+
+        @Override
+        public void set(String key, String value) {
+            if (name.equalsIgnoreCase(key)) {
+                this.value = value;
+            }
+        }
+    }
+
+    /**
+     * A `GET` exchange reused across requests.
+     */
+    private static final class Exchange extends HttpExchange {
+        private final SingleHeader requestHeaders;
+        private final SingleHeader responseHeaders = new SingleHeader("ETag", null);
+        private final OutputStream body = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        private int status;
+
+        Exchange(String ifNoneMatch) {
+            this.requestHeaders = new SingleHeader("If-None-Match", ifNoneMatch);
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return URI.create(VersionHandler.DEFAULT_PATH);
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return "GET";
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return body;
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) {
+            status = rCode;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return status;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+
+}
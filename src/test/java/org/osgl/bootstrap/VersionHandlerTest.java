@@ -0,0 +1,117 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mrcool.swissknife.SwissKnife;
+import org.mrcool.swissknife.db.DbUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+public class VersionHandlerTest extends Assert {
+
+    private HttpServer server;
+    private URL url;
+
+    @Before
+    public void startServer() throws Exception {
+        Version.clearCache();
+        server = VersionHandler.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + VersionHandler.DEFAULT_PATH);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void itShallServeResolvedVersionsWithFingerprintETag() throws Exception {
+        Version.of(SwissKnife.class);
+        HttpURLConnection conn = open(null);
+        assertEquals(200, conn.getResponseCode());
+        assertEquals("\"" + Version.fingerprint() + "\"", conn.getHeaderField("ETag"));
+        // the ETag matches the versions in the body
+        assertEquals("\"" + Fingerprint.of(Version.resolvedVersions()) + "\"", conn.getHeaderField("ETag"));
+        String body = read(conn);
+        assertTrue(body.startsWith("{\"fingerprint\":\"" + Version.fingerprint() + "\""));
+        assertTrue(body.contains("{\"package\":\"org.mrcool.swissknife\",\"artifact\":\"swissknife\","
+                + "\"version\":\"r1.0-3a77\",\"projectVersion\":\"1.0\",\"build\":\"3a77\"}"));
+    }
+
+    @Test
+    public void itShallRespondNotModifiedIfETagMatches() throws Exception {
+        Version.of(SwissKnife.class);
+        String etag = open(null).getHeaderField("ETag");
+        assertEquals(304, open(etag).getResponseCode());
+    }
+
+    @Test
+    public void itShallRegenerateResponseWhenNewVersionResolved() throws Exception {
+        Version.of(SwissKnife.class);
+        String etag = open(null).getHeaderField("ETag");
+        Version.of(DbUtil.class);
+        HttpURLConnection conn = open(etag);
+        assertEquals(200, conn.getResponseCode());
+        assertNotEquals(etag, conn.getHeaderField("ETag"));
+        assertTrue(read(conn).contains("\"artifact\":\"swissknife-db\""));
+    }
+
+    @Test
+    public void itShallRejectNonGetRequest() throws Exception {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("DELETE");
+        assertEquals(405, conn.getResponseCode());
+    }
+
+    private HttpURLConnection open(String ifNoneMatch) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        if (null != ifNoneMatch) {
+            conn.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        return conn;
+    }
+
+    private static String read(HttpURLConnection conn) throws IOException {
+        InputStream is = conn.getInputStream();
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            for (int n = is.read(buf); n >= 0; n = is.read(buf)) {
+                baos.write(buf, 0, n);
+            }
+            return baos.toString("UTF-8");
+        } finally {
+            is.close();
+        }
+    }
+
+}
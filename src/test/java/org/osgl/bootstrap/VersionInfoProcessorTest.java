@@ -0,0 +1,141 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+public class VersionInfoProcessorTest extends Assert {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void itShallGenerateVersionClassFromVersionFile() throws Exception {
+        File src = packageInfo("org.acme.tool");
+        File out = tmp.newFolder("out");
+        write(new File(out, "org/acme/tool/.version"), "artifact=tool\nversion=1.2\nbuild=beef");
+        assertTrue(compile(src, out));
+        Version version = generatedVersion(out, "org.acme.tool");
+        assertEquals(new Version("org.acme.tool", "tool", "1.2", "beef"), version);
+    }
+
+    @Test
+    public void processorOptionsShallOverrideVersionFile() throws Exception {
+        File src = packageInfo("org.acme.tool");
+        File out = tmp.newFolder("out");
+        write(new File(out, "org/acme/tool/.version"), "artifact=tool\nversion=1.2\nbuild=beef");
+        assertTrue(compile(src, out, "-A" + VersionInfoProcessor.OPT_VERSION + "=1.3-SNAPSHOT"));
+        Version version = generatedVersion(out, "org.acme.tool");
+        assertEquals("tool", version.getArtifactId());
+        assertEquals("v1.3-SNAPSHOT-beef", version.getVersion());
+    }
+
+    @Test
+    public void itShallUsePackageNameAsArtifactIdIfNotDefined() throws Exception {
+        File src = packageInfo("org.acme.tool");
+        File out = tmp.newFolder("out");
+        assertTrue(compile(src, out, "-A" + VersionInfoProcessor.OPT_VERSION + "=\"1.0\""));
+        Version version = generatedVersion(out, "org.acme.tool");
+        assertEquals("org.acme.tool", version.getArtifactId());
+        assertEquals("r\"1.0\"", version.getVersion());
+        // the .version file marks the package for the runtime lookup
+        assertTrue(new File(out, "org/acme/tool/.version").isFile());
+    }
+
+    @Test
+    public void itShallFailCompilationIfVersionNotDefined() throws Exception {
+        File src = packageInfo("org.acme.tool");
+        File out = tmp.newFolder("out");
+        assertFalse(compile(src, out));
+    }
+
+    @Test
+    public void versionOfPackageShallBeLoadedFromGeneratedClassFirst() {
+        Version.clearCache();
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            Version version = Version.ofPackage("org.demo.compiled.sub");
+            assertEquals("compiled", version.getArtifactId());
+            assertEquals("r2.0-c0de", version.getVersion());
+            // the `.version` file is located but not read
+            Mockito.verify(spy).findResource("org.demo.compiled");
+            Mockito.verify(spy, Mockito.never()).loadFrom(Mockito.any(URL.class));
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+    }
+
+    private File packageInfo(String packageName) throws IOException {
+        File file = new File(tmp.getRoot(), "src/" + packageName.replace('.', '/') + "/package-info.java");
+        write(file, "@" + VersionInfo.class.getName() + "\npackage " + packageName + ";\n");
+        return file;
+    }
+
+    private boolean compile(File source, File out, String... options) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+        List<String> args = new ArrayList<String>();
+        args.addAll(Arrays.asList("-d", out.getPath(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", VersionInfoProcessor.class.getName()));
+        args.addAll(Arrays.asList(options));
+        StringWriter log = new StringWriter();
+        return compiler.getTask(log, null, null, args, null,
+                compiler.getStandardFileManager(null, null, null).getJavaFileObjects(source)).call();
+    }
+
+    private Version generatedVersion(File out, String packageName) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[] {out.toURI().toURL()}, getClass().getClassLoader());
+        Class<?> c = loader.loadClass(packageName + "." + Version.GENERATED_CLASS);
+        return (Version) c.getField(Version.GENERATED_FIELD).get(null);
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.mrcool.swissknife.SwissKnife;
+import org.mrcool.swissknife.db.DbUtil;
+import org.mrcool.swissknife.internal.StringUtil;
+import org.mrsuck.MyTool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of `Version` lookups of already resolved packages,
+ * comparing the cache with the {@link Version#seal() sealed} table,
+ * profiled for allocation.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=VersionLookupBenchmark`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionLookupBenchmark extends Assert {
+
+    private static final String[] PACKAGES = {
+        SwissKnife.class.getPackage().getName(),
+        DbUtil.class.getPackage().getName(),
+        StringUtil.class.getPackage().getName(),
+        MyTool.class.getPackage().getName()
+    };
+
+    @Param({"false", "true"})
+    public boolean sealed;
+
+    private int i;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Version.clearCache();
+        for (String pkg : PACKAGES) {
+            Version.ofPackage(pkg);
+        }
+        if (sealed) {
+            Version.seal();
+        }
+    }
+
+    @Benchmark
+    public Version of() {
+        return Version.of(DbUtil.class);
+    }
+
+    @Benchmark
+    public Version ofPackage() {
+        return Version.ofPackage(PACKAGES[i++ & 3]);
+    }
+
+    @Test
+    public void sealedLookupShallNotBeSlowerThanCacheLookup() throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.run(getClass(), true);
+        runner.assertNoAllocation();
+        for (String benchmark : new String[] {"of", "ofPackage"}) {
+            double unsealed = runner.score(benchmark + ":false");
+            double sealed = runner.score(benchmark + ":true");
+            runner.report("%s: unsealed %.2f ns/op, sealed %.2f ns/op", benchmark, unsealed, sealed);
+            // allow 25% noise
+            assertTrue(benchmark + " sealed lookup regressed", sealed <= unsealed * 1.25);
+        }
+    }
+
+}
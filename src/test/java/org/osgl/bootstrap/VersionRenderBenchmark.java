@@ -0,0 +1,89 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of rendering a `Version` into reused buffers, profiled
+ * for allocation.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=VersionRenderBenchmark`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionRenderBenchmark extends Assert {
+
+    private Version version;
+    private StringBuilder sb;
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        version = new Version("org.mrcool.swissknife", "swissknife", "1.0.0-SNAPSHOT", "3a77");
+        sb = new StringBuilder(128);
+        buffer = ByteBuffer.allocateDirect(128);
+    }
+
+    @Benchmark
+    public StringBuilder appendTo() {
+        sb.setLength(0);
+        return version.appendTo(sb);
+    }
+
+    @Benchmark
+    public ByteBuffer writeUtf8() {
+        buffer.clear();
+        version.writeArtifactIdUtf8(buffer);
+        version.writeVersionUtf8(buffer);
+        return version.writeUtf8(buffer);
+    }
+
+    @Benchmark
+    public String toStringForm() {
+        return version.toString();
+    }
+
+    @Test
+    public void renderingShallNotAllocate() throws Exception {
+        BenchmarkRunner.run(getClass(), true).assertNoAllocation();
+    }
+
+}
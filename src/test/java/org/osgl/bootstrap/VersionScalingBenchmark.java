@@ -0,0 +1,123 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures how `Version` scales with synthetic classpaths of
+ * `jars x packages x depth` packages.
+ *
+ * Run with `mvn test -Pbenchmark`. Thresholds can be overwritten with
+ * system properties, e.g. `-Dbenchmark.maxColdMicrosPerPackage=500`.
+ */
+public class VersionScalingBenchmark extends Assert {
+
+    private static final int PACKAGES = Integer.getInteger("benchmark.packages", 100);
+    private static final int DEPTH = Integer.getInteger("benchmark.depth", 3);
+    private static final int[] JARS = {10, 30, 100};
+    private static final int ROUNDS = 5;
+
+    private static final long MAX_COLD_MICROS_PER_PACKAGE = Long.getLong("benchmark.maxColdMicrosPerPackage", 200);
+    private static final double MAX_COLD_GROWTH = Double.parseDouble(
+            System.getProperty("benchmark.maxColdGrowth", "5.0"));
+    private static final long MAX_RETAINED_BYTES_PER_VERSION = Long.getLong("benchmark.maxRetainedBytesPerVersion", 400);
+    private static final long MAX_RETAINED_BYTES_PER_PACKAGE = Long.getLong("benchmark.maxRetainedBytesPerPackage", 400);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void coldResolutionTimeAsJarCountGrows() throws Exception {
+        SyntheticClasspath[] classpaths = new SyntheticClasspath[JARS.length];
+        long[] best = new long[JARS.length];
+        for (int i = 0; i < JARS.length; i++) {
+            classpaths[i] = new SyntheticClasspath(tmp.newFolder(), JARS[i], PACKAGES, DEPTH);
+            best[i] = Long.MAX_VALUE;
+        }
+        // the sizes are measured in turn in each round, so that all of them are
+        // measured with the same JIT state
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < JARS.length; i++) {
+                List<String> leaves = classpaths[i].leafPackages();
+                SyntheticClasspath.Isolated isolated = classpaths[i].isolate();
+                long start = System.nanoTime();
+                for (String leaf : leaves) {
+                    isolated.ofPackage(leaf);
+                }
+                best[i] = Math.min(best[i], (System.nanoTime() - start) / leaves.size());
+                isolated.loader.close();
+            }
+        }
+        long[] micros = new long[JARS.length];
+        for (int i = 0; i < JARS.length; i++) {
+            micros[i] = best[i] / 1000L;
+            report("cold resolution", JARS[i], micros[i] + " us/package");
+            assertTrue("cold resolution regressed: " + micros[i] + " us/package",
+                    micros[i] <= MAX_COLD_MICROS_PER_PACKAGE);
+        }
+        // jar count grows 10 times, the time per package shall not grow in proportion
+        double growth = (double) best[JARS.length - 1] / best[0];
+        System.out.printf("[VersionScalingBenchmark] cold resolution grows %.2f times from %d to %d jars%n",
+                growth, JARS[0], JARS[JARS.length - 1]);
+        assertTrue("cold resolution scales worse: " + growth + " times", growth <= MAX_COLD_GROWTH);
+    }
+
+    @Test
+    public void retainedHeapPerCachedVersion() throws Exception {
+        int jars = JARS[JARS.length - 1];
+        SyntheticClasspath classpath = new SyntheticClasspath(tmp.newFolder(), jars, PACKAGES, DEPTH);
+        SyntheticClasspath.Isolated isolated = classpath.isolate();
+        List<String> leaves = classpath.leafPackages();
+        for (String leaf : leaves) {
+            isolated.ofPackage(leaf);
+        }
+        Map<?, ?> cache = (Map<?, ?>) isolated.staticField("cache");
+        long total = GraphLayout.parseInstance(cache).totalSize();
+        long perPackage = total / leaves.size();
+        // entries of sub packages share the `Version` of the owning package
+        Set<Object> versions = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        versions.addAll(cache.values());
+        long perVersion = GraphLayout.parseInstance(versions.toArray()).totalSize() / versions.size();
+        report("retained heap", jars, cache.size() + " entries, " + versions.size() + " versions, " + total + " bytes, "
+                + perPackage + " bytes/leaf package, " + perVersion + " bytes/version");
+        assertTrue("retained heap regressed: " + perPackage + " bytes/leaf package",
+                perPackage <= MAX_RETAINED_BYTES_PER_PACKAGE);
+        assertTrue("retained heap regressed: " + perVersion + " bytes/version", perVersion <= MAX_RETAINED_BYTES_PER_VERSION);
+        isolated.loader.close();
+    }
+
+    private void report(String metric, int jars, String result) {
+        System.out.printf("[VersionScalingBenchmark] %s, %d jars x %d packages x depth %d: %s%n",
+                metric, jars, PACKAGES, DEPTH, result);
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Measures {@link VersionScanner} on a directory of generated jar files,
+ * compared with reading `.version` entries through `java.util.zip.ZipFile`.
+ *
+ * Run with `mvn test -Pbenchmark -Dtest=VersionScannerBenchmark`.
+ */
+public class VersionScannerBenchmark extends Assert {
+
+    private static final int JARS = Integer.getInteger("benchmark.jars", 3000);
+    private static final int PACKAGES = 20;
+    private static final int ROUNDS = 5;
+    private static final double MAX_RATIO_TO_ZIP_FILE = Double.parseDouble(
+            System.getProperty("benchmark.maxScannerToZipFileRatio", "1.5"));
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void scanGeneratedJars() throws Exception {
+        SyntheticClasspath classpath = new SyntheticClasspath(tmp.newFolder(), JARS, PACKAGES, 2);
+        List<File> jars = classpath.files;
+        PrintStream devNull = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+
+        long scanner = Long.MAX_VALUE;
+        long zipFile = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (File jar : jars) {
+                found += VersionScanner.scan(jar).size();
+            }
+            scanner = Math.min(scanner, System.nanoTime() - start);
+            assertEquals(JARS, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for (File jar : jars) {
+                found += scanWithZipFile(jar);
+            }
+            zipFile = Math.min(zipFile, System.nanoTime() - start);
+            assertEquals(JARS, found);
+
+            start = System.nanoTime();
+            assertEquals(0, VersionScanner.scan(jars, devNull, devNull));
+            parallel = Math.min(parallel, System.nanoTime() - start);
+        }
+        System.out.printf("[VersionScannerBenchmark] %d jars: scanner %d ms, ZipFile %d ms, parallel scanner %d ms%n",
+                JARS, scanner / 1000000L, zipFile / 1000000L, parallel / 1000000L);
+        assertTrue("scanner regressed", scanner <= zipFile * MAX_RATIO_TO_ZIP_FILE);
+    }
+
+    private static int scanWithZipFile(File jar) throws IOException {
+        int found = 0;
+        ZipFile zip = new ZipFile(jar);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith("/.version")) {
+                    Properties properties = new Properties();
+                    InputStream is = zip.getInputStream(entry);
+                    try {
+                        properties.load(is);
+                    } finally {
+                        is.close();
+                    }
+                    found++;
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return found;
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+public class VersionScannerTest extends Assert {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void itShallFindDeflatedAndStoredVersionFiles() throws Exception {
+        File jar = tmp.newFile("lib.jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            deflated(jos, "org/mrcool/swissknife/.version", "artifact=swissknife\nversion=1.0\nbuild=3a77");
+            deflated(jos, "org/mrcool/swissknife/SwissKnife.class", "not a class");
+            stored(jos, "org/mrcool/swissknife/db/.version", "artifact=swissknife-db\nversion=0.8-SNAPSHOT");
+            stored(jos, ".version", "artifact=root\nversion=1.0");
+            deflated(jos, "org/demo/badversion/noversion/.version", "artifact=something");
+        } finally {
+            jos.close();
+        }
+        List<Version> versions = VersionScanner.scan(jar);
+        assertEquals(Arrays.asList(
+                new Version("org.mrcool.swissknife", "swissknife", "1.0", "3a77"),
+                new Version("org.mrcool.swissknife.db", "swissknife-db", "0.8-SNAPSHOT", null)), versions);
+    }
+
+    @Test(expected = IOException.class)
+    public void itShallRejectNonZipFile() throws Exception {
+        File file = tmp.newFile("bad.jar");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write("not a zip file".getBytes("UTF-8"));
+        } finally {
+            fos.close();
+        }
+        VersionScanner.scan(file);
+    }
+
+    @Test
+    public void itShallScanJarsInDirectoriesAndPrintVersions() throws Exception {
+        File dir = tmp.newFolder("jars");
+        File sub = new File(dir, "sub");
+        assertTrue(sub.mkdirs());
+        new SyntheticClasspath(sub, 20, 3, 2);
+        File bad = new File(dir, "bad.jar");
+        assertTrue(bad.createNewFile());
+
+        List<File> jars = new ArrayList<File>();
+        VersionScanner.collect(dir, jars);
+        assertEquals(21, jars.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int failures = VersionScanner.scan(jars, new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+        assertEquals(1, failures);
+        assertTrue(err.toString("UTF-8").contains("bad.jar"));
+
+        Set<String> expected = new HashSet<String>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(new Version(SyntheticClasspath.rootPackage(i), "synth-" + i, "1.0." + i, "b" + i).toString());
+        }
+        Set<String> printed = new HashSet<String>(Arrays.asList(out.toString("UTF-8").split("\\r?\\n")));
+        assertEquals(expected, printed);
+    }
+
+    @Test
+    public void itShallReportJarOfMalformedVersionFile() throws Exception {
+        File jar = tmp.newFile("escape.jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            deflated(jos, "org/mrcool/swissknife/.version", "artifact=swiss\\uZZZZ\nversion=1.0");
+        } finally {
+            jos.close();
+        }
+        assertScanFailure(jar, "invalid .version file");
+    }
+
+    @Test
+    public void itShallReportJarOfCorruptedCentralDirectory() throws Exception {
+        File jar = tmp.newFile("corrupted.jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            deflated(jos, "org/mrcool/swissknife/.version", "artifact=swissknife\nversion=1.0");
+        } finally {
+            jos.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(jar, "rw");
+        try {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+            // set the name length of the central directory entry to 0xFFFF
+            for (int pos = bytes.length - 4; pos >= 0; pos--) {
+                if (0x50 == bytes[pos] && 0x4b == bytes[pos + 1] && 0x01 == bytes[pos + 2] && 0x02 == bytes[pos + 3]) {
+                    raf.seek(pos + 28);
+                    raf.write(new byte[] {(byte) 0xFF, (byte) 0xFF});
+                    break;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        assertScanFailure(jar, "invalid zip central directory entry");
+    }
+
+    private static void assertScanFailure(File jar, String message) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int failures = VersionScanner.scan(Arrays.asList(jar),
+                new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+        assertEquals(1, failures);
+        String error = err.toString("UTF-8");
+        assertTrue(error, error.contains(jar.getName()));
+        assertTrue(error, error.contains(message));
+    }
+
+    private static void deflated(JarOutputStream jos, String name, String content) throws IOException {
+        jos.putNextEntry(new ZipEntry(name));
+        jos.write(content.getBytes("UTF-8"));
+        jos.closeEntry();
+    }
+
+    private static void stored(JarOutputStream jos, String name, String content) throws IOException {
+        byte[] bytes = content.getBytes("UTF-8");
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        jos.putNextEntry(entry);
+        jos.write(bytes);
+        jos.closeEntry();
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.osgl.bootstrap;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class VersionTableTest extends Assert {
+
+    @Test
+    public void itShallFindAllMappings() {
+        Map<String, Version> map = new HashMap<String, Version>();
+        for (int i = 0; i < 1000; i++) {
+            String pkg = "com.foo" + i;
+            map.put(pkg, new Version(pkg, "foo" + i, "1." + i, null));
+        }
+        VersionTable table = new VersionTable(map, false);
+        assertEquals(1000, table.size());
+        for (Map.Entry<String, Version> entry : map.entrySet()) {
+            assertSame(entry.getValue(), table.get(entry.getKey()));
+        }
+        assertNull(table.get("com.bar"));
+    }
+
+    @Test
+    public void itShallHandleHashCollision() {
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Map<String, Version> map = new HashMap<String, Version>();
+        map.put("Aa", Version.UNKNOWN);
+        map.put("BB", new Version("BB", "bb", "1.0", null));
+        VersionTable table = new VersionTable(map, true);
+        assertSame(Version.UNKNOWN, table.get("Aa"));
+        assertEquals("bb", table.get("BB").getArtifactId());
+        assertNull(table.get("C#"));
+        assertTrue(table.strict);
+    }
+
+    @Test
+    public void emptyTableShallNotFindAnything() {
+        assertNull(new VersionTable(new HashMap<String, Version>(), false).get("foo"));
+    }
+
+}
@@ -31,23 +31,38 @@ import org.mrcool.swissknife.SwissKnife;
 import org.mrcool.swissknife.db.DbUtil;
 import org.mrcool.swissknife.internal.StringUtil;
 import org.mrsuck.MyTool;
-import org.slf4j.Logger;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class VersionTest extends Assert {
 
-    protected Logger logger;
+    protected LogAdapter logger;
 
     @Before
     public void prepare() throws Exception {
         Version.clearCache();
-        logger = Mockito.mock(Logger.class);
-        Field field = Version.class.getDeclaredField("logger");
+        logger = Mockito.mock(LogAdapter.class);
+        Field field = Class.forName(Version.class.getName() + "$LoggerHolder").getDeclaredField("logger");
         field.setAccessible(true);
         field.set(null, logger);
     }
@@ -178,7 +193,7 @@ public class VersionTest extends Assert {
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<Object> messageArgCaptor = ArgumentCaptor.forClass(Object.class);
         Mockito.verify(logger, Mockito.times(3)).warn(messageCaptor.capture(), messageArgCaptor.capture());
-        assertTrue(messageCaptor.getValue().contains("variable found in .version file for %s"));
+        assertTrue(messageCaptor.getValue().contains("variable found in .version file for {}"));
         assertTrue(messageArgCaptor.getValue().toString().equals("net.tab"));
     }
 
@@ -250,4 +265,438 @@ public class VersionTest extends Assert {
         Version v2 = (Version) ois.readObject();
         assertEquals(v1, v2);
     }
+
+    @Test
+    public void serialVersionUidShallBeCompatibleWithFirstRelease() {
+        assertEquals(-1322462104319531435L, ObjectStreamClass.lookup(Version.class).getSerialVersionUID());
+    }
+
+    @Test
+    public void lazyVersionShallNotLoadResourceUntilAccessed() {
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            Version version = Version.lazy(SwissKnife.class);
+            Mockito.verifyZeroInteractions(spy);
+            assertEquals("swissknife", version.getArtifactId());
+            // resolved through the code source of the class
+            Mockito.verify(spy, Mockito.never()).loadFrom(Mockito.any(URL.class));
+            Version lazyOfPackage = Version.lazyOfPackage("org.mrcool.swissknife.db");
+            assertEquals("swissknife-db", lazyOfPackage.getArtifactId());
+            Mockito.verify(spy).findResource("org.mrcool.swissknife.db");
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+    }
+
+    @Test
+    public void lazyVersionShallEqualResolvedVersion() {
+        Version lazy = Version.lazy(DbUtil.class);
+        Version resolved = Version.of(DbUtil.class);
+        assertEquals(resolved, lazy);
+        assertEquals(lazy, resolved);
+        assertEquals(resolved.hashCode(), lazy.hashCode());
+        assertEquals(resolved.toString(), lazy.toString());
+        assertTrue(Version.lazy(MyTool.class).isUnknown());
+        assertEquals(Version.ofPackage("org.mrcool.swissknife.internal"),
+                Version.lazyOfPackage("org.mrcool.swissknife.internal"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lazyVersionOfIllegalPackageNameShallFailImmediately() {
+        Version.lazyOfPackage("org.mrsuck..proj");
+    }
+
+    @Test
+    public void lazyVersionShallBeSerializedAsResolvedVersion() throws Exception {
+        Version lazy = Version.lazy(SwissKnife.class);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(lazy);
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        Version v = (Version) ois.readObject();
+        assertEquals(Version.of(SwissKnife.class), v);
+        assertEquals("swissknife", v.getArtifactId());
+    }
+
+    @Test
+    public void fingerprintShallNotDependOnLoadOrder() {
+        Version.of(SwissKnife.class);
+        Version.of(DbUtil.class);
+        Version.of(NetTab.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        assertNotEquals(Fingerprint.EMPTY, fingerprint);
+
+        Version.clearCache();
+        assertEquals(Fingerprint.EMPTY, Version.fingerprint());
+        Version.of(NetTab.class);
+        Version.of(DbUtil.class);
+        Version.of(StringUtil.class);
+        Version.of(SwissKnife.class);
+        assertEquals(fingerprint, Version.fingerprint());
+        assertEquals(fingerprint, Fingerprint.of(Version.resolvedVersions()));
+    }
+
+    @Test
+    public void fingerprintShallChangeOnlyWhenNewVersionResolved() {
+        Version.of(SwissKnife.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        Version.of(StringUtil.class);
+        Version.of(MyTool.class);
+        Version.ofPackage("org.demo.badversion.noversion");
+        assertEquals(fingerprint, Version.fingerprint());
+        Version.of(DbUtil.class);
+        assertNotEquals(fingerprint, Version.fingerprint());
+    }
+
+    @Test
+    public void fingerprintShallBeParsedFromString() {
+        Fingerprint fingerprint = Fingerprint.of(Arrays.asList(
+                new Version("com.bar", "foo", "1.0", "a12f"), new Version("net.bar", "foo", "1.0", "a12f")));
+        assertEquals(32, fingerprint.toString().length());
+        assertEquals(fingerprint, Fingerprint.parse(fingerprint.toString()));
+        assertEquals(Fingerprint.EMPTY, Fingerprint.parse(Fingerprint.EMPTY.toString()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parsingInvalidFingerprintShallFail() {
+        Fingerprint.parse("0123456789abcdef0123456789abcdeg");
+    }
+
+    @Test
+    public void diffShallNotFetchRemoteVersionsIfFingerprintsMatch() throws Exception {
+        Version.of(SwissKnife.class);
+        Set<Version> diff = Version.diff(Version.fingerprint(), new Callable<Collection<Version>>() {
+            @Override
+            public Collection<Version> call() throws Exception {
+                throw new AssertionError("remote versions shall not be fetched");
+            }
+        });
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void diffShallReturnVersionsOnlyExistOnOneSide() throws Exception {
+        Version swissKnife = Version.of(SwissKnife.class);
+        Version db = Version.of(DbUtil.class);
+        final Version other = new Version("com.bar", "foo", "1.0", "a12f");
+        final Collection<Version> remote = Arrays.asList(db, other);
+        Set<Version> diff = Version.diff(Fingerprint.of(remote), new Callable<Collection<Version>>() {
+            @Override
+            public Collection<Version> call() {
+                return remote;
+            }
+        });
+        assertEquals(2, diff.size());
+        assertTrue(diff.contains(swissKnife));
+        assertTrue(diff.contains(other));
+    }
+
+    @Test
+    public void itShallCacheSubPackageAndUnknownPackageVersion() {
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            Version version = Version.of(StringUtil.class);
+            assertSame(Version.UNKNOWN, Version.of(MyTool.class));
+            Mockito.reset(spy);
+            assertSame(version, Version.of(StringUtil.class));
+            assertSame(Version.UNKNOWN, Version.of(MyTool.class));
+            Mockito.verifyZeroInteractions(spy);
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+    }
+
+    @Test
+    public void sealedVersionShallBeLookedUpWithoutLoadingResource() {
+        Version swissKnife = Version.of(SwissKnife.class);
+        Version.of(StringUtil.class);
+        Version.of(MyTool.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        Version.seal(true);
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            assertSame(swissKnife, Version.of(SwissKnife.class));
+            assertSame(swissKnife, Version.of(StringUtil.class));
+            assertSame(Version.UNKNOWN, Version.of(MyTool.class));
+            // strict mode returns UNKNOWN for package not sealed
+            assertSame(Version.UNKNOWN, Version.of(DbUtil.class));
+            Mockito.verifyZeroInteractions(spy);
+            assertEquals(fingerprint, Version.fingerprint());
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+    }
+
+    @Test
+    public void sealedVersionShallFallbackToResourceLoadingIfNotStrict() {
+        Version swissKnife = Version.of(SwissKnife.class);
+        Version.seal();
+        assertSame(swissKnife, Version.of(SwissKnife.class));
+        Version db = Version.of(DbUtil.class);
+        assertEquals("swissknife-db", db.getArtifactId());
+        assertSame(db, Version.of(DbUtil.class));
+    }
+
+    @Test
+    public void resealingShallNotKeepUnknownVersionsOfStrictTable() {
+        Version.of(SwissKnife.class);
+        Version.seal(true);
+        StackTraceElement frame = new StackTraceElement(DbUtil.class.getName(), "query", "DbUtil.java", 30);
+        assertSame(Version.UNKNOWN, Version.of(DbUtil.class));
+        assertSame(Version.UNKNOWN, Version.ofFrame(frame));
+        Version.seal(false);
+        Version db = Version.ofPackage("org.mrcool.swissknife.db");
+        assertEquals("swissknife-db", db.getArtifactId());
+        assertSame(db, Version.of(DbUtil.class));
+        assertSame(db, Version.ofFrame(frame));
+    }
+
+    @Test
+    public void itShallMapStackFramesToVersions() {
+        StackTraceElement[] frames = {
+            new StackTraceElement(SwissKnife.class.getName(), "cut", "SwissKnife.java", 10),
+            new StackTraceElement(SwissKnife.class.getName(), "open", "SwissKnife.java", 20),
+            new StackTraceElement(DbUtil.class.getName(), "query", "DbUtil.java", 30),
+            new StackTraceElement(MyTool.class.getName(), "run", "MyTool.java", 40),
+            new StackTraceElement("Main", "main", "Main.java", 50)
+        };
+        Version[] versions = Version.ofFrames(frames);
+        assertSame(Version.of(SwissKnife.class), versions[0]);
+        assertSame(versions[0], versions[1]);
+        assertSame(Version.of(DbUtil.class), versions[2]);
+        assertSame(Version.UNKNOWN, versions[3]);
+        assertSame(Version.UNKNOWN, versions[4]);
+
+        Version[] reused = new Version[frames.length];
+        assertSame(reused, Version.ofFrames(frames, reused));
+        assertArrayEquals(versions, reused);
+    }
+
+    @Test
+    public void frameCacheShallBeBounded() throws Exception {
+        Field field = Version.class.getDeclaredField("frameCache");
+        field.setAccessible(true);
+        Map<?, ?> frameCache = (Map<?, ?>) field.get(null);
+        String proxyClass = SwissKnife.class.getName() + "$$EnhancerByCGLIB$$";
+        for (int i = 0; i < Version.FRAME_CACHE_SIZE * 2; i++) {
+            StackTraceElement frame = new StackTraceElement(proxyClass + i, "cut", null, -1);
+            assertEquals("swissknife", Version.ofFrame(frame).getArtifactId());
+            assertTrue(frameCache.size() <= Version.FRAME_CACHE_SIZE);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ofFramesShallRejectShorterVersionArray() {
+        StackTraceElement[] frames = new RuntimeException().getStackTrace();
+        Version.ofFrames(frames, new Version[frames.length - 1]);
+    }
+
+    @Test
+    public void itShallRenderStringFormIntoBuffers() throws Exception {
+        Version version = new Version("com.bar", "föö", "1.0", "a12f");
+        assertEquals("föö-r1.0-a12f", version.toString());
+        assertSame(version.toString(), version.toString());
+
+        StringBuilder sb = new StringBuilder("v=");
+        assertSame(sb, version.appendTo(sb));
+        assertEquals("v=" + version, sb.toString());
+
+        Appendable appendable = new StringBuffer();
+        version.appendTo(appendable);
+        assertEquals(version.toString(), appendable.toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        version.writeUtf8(buffer);
+        buffer.put((byte) ' ');
+        version.writeArtifactIdUtf8(buffer).put((byte) ' ');
+        version.writeVersionUtf8(buffer).put((byte) ' ');
+        version.writeBuildNumberUtf8(buffer);
+        assertEquals(version + " föö r1.0-a12f a12f",
+                new String(buffer.array(), 0, buffer.position(), "UTF-8"));
+    }
+
+    @Test
+    public void lazyVersionShallRenderResolvedVersion() {
+        Version lazy = Version.lazy(SwissKnife.class);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        lazy.writeUtf8(buffer);
+        assertEquals("swissknife-r1.0-3a77", new String(buffer.array(), 0, buffer.position()));
+        assertEquals("swissknife-r1.0-3a77", lazy.appendTo(new StringBuilder()).toString());
+    }
+
+    @Test
+    public void itShallResolveClassVersionFromCodeSourceIndex() {
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            Version version = Version.of(StringUtil.class);
+            assertEquals("swissknife-r1.0-3a77", version.toString());
+            assertSame(version, Version.of(SwissKnife.class));
+            assertSame(version, Version.ofPackage("org.mrcool.swissknife.internal"));
+            assertEquals("swissknife-db", Version.of(DbUtil.class).getArtifactId());
+            // the classpath is probed once per `.version` file to confirm its location, not read
+            Mockito.verify(spy).findResource("org.mrcool.swissknife");
+            Mockito.verify(spy).findResource("org.mrcool.swissknife.db");
+            Mockito.verifyNoMoreInteractions(spy);
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+        assertSame(Version.of(DbUtil.class), Version.ofPackage("org.mrcool.swissknife.db"));
+        assertFalse(Version.fingerprint().equals(Fingerprint.EMPTY));
+    }
+
+    @Test
+    public void classWithoutVersionInCodeSourceShallFallbackToPackageLookup() {
+        assertSame(Version.UNKNOWN, Version.of(MyTool.class));
+        assertSame(Version.UNKNOWN, Version.of(String.class));
+        assertSame(Version.UNKNOWN, Version.of(MyTool.class));
+    }
+
+    @Test
+    public void platformClassesShallResolveToUnknownWithoutLookup() {
+        PropertyLoader loader = PropertyLoader.INSTANCE;
+        PropertyLoader spy = Mockito.spy(loader);
+        PropertyLoader.INSTANCE = spy;
+        try {
+            assertSame(Version.UNKNOWN, Version.of(Thread.class));
+            assertSame(Version.UNKNOWN, Version.ofPackage("javax.net.ssl"));
+            assertSame(Version.UNKNOWN, Version.ofPackage("com.sun.proxy"));
+            assertSame(Version.UNKNOWN, Version.ofFrame(new StackTraceElement("sun.misc.Unsafe", "park", null, -1)));
+            Mockito.verifyZeroInteractions(spy);
+            // prefix shall match package segments only
+            Version.ofPackage("javanese");
+            Mockito.verify(spy).findResource("javanese");
+        } finally {
+            PropertyLoader.INSTANCE = loader;
+        }
+    }
+
+    @Test
+    public void excludedPackagesShallResolveToUnknown() {
+        Version.of(SwissKnife.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        assertEquals("swissknife-db", Version.of(DbUtil.class).getArtifactId());
+        Version.setExcludedPackages("org.mrcool.swissknife.db");
+        try {
+            assertEquals(fingerprint, Version.fingerprint());
+            assertSame(Version.UNKNOWN, Version.of(DbUtil.class));
+            assertSame(Version.UNKNOWN, Version.ofPackage("org.mrcool.swissknife.db"));
+            assertSame(Version.UNKNOWN, Version.ofPackage("org.mrcool.swissknife.db.sub"));
+            assertEquals("swissknife", Version.of(SwissKnife.class).getArtifactId());
+        } finally {
+            Version.setExcludedPackages();
+        }
+        assertEquals("swissknife-db", Version.of(DbUtil.class).getArtifactId());
+    }
+
+    @Test
+    public void fingerprintShallMatchResolvedVersionsWhenExcludingConcurrently() throws Exception {
+        final String[] packages = {"org.mrcool.swissknife", "org.mrcool.swissknife.db", "net", "net.tab"};
+        ExecutorService executor = Executors.newFixedThreadPool(packages.length);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Version.clearCache();
+                List<Future<Version>> futures = new ArrayList<Future<Version>>();
+                for (final String pkg : packages) {
+                    futures.add(executor.submit(new Callable<Version>() {
+                        @Override
+                        public Version call() {
+                            return Version.ofPackage(pkg);
+                        }
+                    }));
+                }
+                Version.setExcludedPackages("org.mrsuck");
+                for (Future<Version> future : futures) {
+                    future.get();
+                }
+                assertEquals(Fingerprint.of(Version.resolvedVersions()), Version.fingerprint());
+            }
+        } finally {
+            executor.shutdown();
+            Version.setExcludedPackages();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void excludingInvalidPackageShallFail() {
+        Version.setExcludedPackages("org..mrcool");
+    }
+
+    @Test
+    public void platformClassesShallResolveToRuntimeVersionIfEnabled() {
+        Version.resolvePlatformToRuntime(true);
+        try {
+            Version version = Version.of(String.class);
+            assertSame(Version.runtime(), version);
+            assertEquals("java", version.getArtifactId());
+            assertEquals(System.getProperty("java.version"), version.getProjectVersion());
+            assertSame(Version.UNKNOWN, Version.ofPackage("com.sun.proxy"));
+            // javax APIs may ship in separate jars
+            assertSame(Version.UNKNOWN, Version.ofPackage("javax.servlet"));
+        } finally {
+            Version.resolvePlatformToRuntime(false);
+        }
+        assertSame(Version.UNKNOWN, Version.of(String.class));
+    }
+
+    @Test
+    public void splitPackageShallResolveToVersionOfItsCodeSource() throws Exception {
+        Version swissKnife = Version.of(SwissKnife.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        Version shaded = ofShadedClass();
+        assertEquals("shaded", shaded.getArtifactId());
+        assertSame(swissKnife, Version.ofPackage("org.mrcool.swissknife"));
+        assertEquals(fingerprint, Version.fingerprint());
+    }
+
+    @Test
+    public void splitPackageShallNotTakeOverPackageIfResolvedFirst() throws Exception {
+        Version.of(SwissKnife.class);
+        Fingerprint fingerprint = Version.fingerprint();
+        Set<Version> versions = Version.resolvedVersions();
+        Version.clearCache();
+
+        assertEquals("shaded", ofShadedClass().getArtifactId());
+        assertEquals(Fingerprint.EMPTY, Version.fingerprint());
+        assertTrue(Version.resolvedVersions().isEmpty());
+        assertEquals("swissknife", Version.ofPackage("org.mrcool.swissknife").getArtifactId());
+        assertEquals("swissknife", Version.ofPackage("org.mrcool.swissknife.internal").getArtifactId());
+        assertSame(Version.ofPackage("org.mrcool.swissknife"), Version.of(SwissKnife.class));
+        assertEquals(versions, Version.resolvedVersions());
+        assertEquals(fingerprint, Version.fingerprint());
+    }
+
+    /**
+     * Resolve the version of a class in a copy of the `org.mrcool.swissknife` package
+     * with its own `.version` file, loaded by a child class loader.
+     */
+    private Version ofShadedClass() throws Exception {
+        File dir = Files.createTempDirectory("osgl-bootstrap").toFile();
+        File pkg = new File(dir, "org/mrcool/swissknife");
+        File internal = new File(pkg, "internal");
+        assertTrue(internal.mkdirs());
+        Files.write(new File(pkg, ".version").toPath(), "artifact=shaded\nversion=2.0".getBytes("UTF-8"));
+        Files.write(new File(internal, "Shaded.class").toPath(),
+                SyntheticClasspath.emptyClass("org/mrcool/swissknife/internal/Shaded"));
+        URLClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, getClass().getClassLoader());
+        try {
+            Class<?> shaded = loader.loadClass("org.mrcool.swissknife.internal.Shaded");
+            Version version = Version.of(shaded);
+            assertEquals(version, Version.lazy(shaded));
+            return version;
+        } finally {
+            loader.close();
+            for (File file : new File[] {new File(internal, "Shaded.class"), internal, new File(pkg, ".version"), pkg,
+                    pkg.getParentFile(), pkg.getParentFile().getParentFile(), dir}) {
+                file.delete();
+            }
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package org.osgl.bootstrap.logback;
+
+/*-
+ * #%L
+ * OSGL Bootstrap
+ * %%
+ * Copyright (C) 2017 OSGL (Open Source General Library)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mrcool.swissknife.SwissKnife;
+import org.osgl.bootstrap.Version;
+
+public class VersionThrowableProxyConverterTest extends Assert {
+
+    @Test
+    public void itShallAppendVersionToKnownFramesOnly() {
+        RuntimeException e = new RuntimeException("boom");
+        e.setStackTrace(new StackTraceElement[] {
+            new StackTraceElement(SwissKnife.class.getName(), "cut", "SwissKnife.java", 10),
+            new StackTraceElement("org.mrsuck.MyTool", "run", "MyTool.java", 20)
+        });
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger(getClass());
+        LoggingEvent event = new LoggingEvent(getClass().getName(), logger, Level.ERROR, "failed", e, null);
+
+        VersionThrowableProxyConverter converter = new VersionThrowableProxyConverter();
+        converter.setContext(context);
+        converter.start();
+        String s = converter.convert(event);
+
+        assertTrue(s, s.contains("at " + SwissKnife.class.getName() + ".cut(SwissKnife.java:10) ["
+                + Version.of(SwissKnife.class) + "]"));
+        assertTrue(s, s.contains("at org.mrsuck.MyTool.run(MyTool.java:20)" + System.getProperty("line.separator")));
+    }
+
+}